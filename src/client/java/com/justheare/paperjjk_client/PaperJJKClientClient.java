@@ -1,15 +1,27 @@
 package com.justheare.paperjjk_client;
 
 import com.justheare.paperjjk_client.command.DebugCommand;
+import com.justheare.paperjjk_client.compat.IrisCompat;
 import com.justheare.paperjjk_client.command.SkillConfigCommand;
 import com.justheare.paperjjk_client.data.ClientGameData;
+import com.justheare.paperjjk_client.hud.JJKHudRenderer;
 import com.justheare.paperjjk_client.keybind.JJKKeyBinds;
 import com.justheare.paperjjk_client.network.ClientPacketHandler;
+import com.justheare.paperjjk_client.render.CustomPostProcessing;
 import com.justheare.paperjjk_client.render.DebugRenderer;
+import com.justheare.paperjjk_client.render.DomainRaymarchRenderer;
+import com.justheare.paperjjk_client.render.DomainShellRenderer;
+import com.justheare.paperjjk_client.render.FrameBudgetController;
+import com.justheare.paperjjk_client.render.FresnelShellRenderer;
+import com.justheare.paperjjk_client.render.GpuProfiler;
+import com.justheare.paperjjk_client.render.GpuTimestamps;
+import com.justheare.paperjjk_client.render.OitPass;
+import com.justheare.paperjjk_client.render.RenderTargetPool;
+import com.justheare.paperjjk_client.shader.ShaderWarmup;
+import com.justheare.paperjjk_client.util.RenderHandles;
 // import com.justheare.paperjjk_client.render.DomainRenderer;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
-import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.world.WorldRenderContext;
 import net.fabricmc.fabric.api.client.rendering.v1.world.WorldRenderEvents;
@@ -42,6 +54,20 @@ public class PaperJJKClientClient implements ClientModInitializer {
 		LOGGER.info("  버전: 1.0.0 | 프로토콜: {}", PROTOCOL_VERSION);
 		LOGGER.info("========================================");
 
+		// 0. 렌더 내부 접근자 검증 (매핑 변경 시 여기서 바로 실패) + Iris 감지
+		RenderHandles.validate();
+		IrisCompat.init();
+
+		// 셰이더 워밍업: 리소스 리로드(로딩 화면) 중에 모든 JJK 프로그램을 미리 컴파일
+		// 렌더 중에는 동기 컴파일하지 않고, 링크가 끝날 때까지 해당 효과를 건너뜀
+		ShaderWarmup.register(CustomPostProcessing::init);
+		ShaderWarmup.register(DomainRaymarchRenderer::init);
+		ShaderWarmup.register(DomainShellRenderer::init);
+		ShaderWarmup.register(FresnelShellRenderer::init);
+		ShaderWarmup.register(OitPass::init);
+		ShaderWarmup.register(JJKHudRenderer::init);
+		ShaderWarmup.init();
+
 		// 1. Payload 타입 등록
 		LOGGER.info("[1/5] Payload 타입 등록 중...");
 		PayloadTypeRegistry.playC2S().register(
@@ -88,6 +114,12 @@ public class PaperJJKClientClient implements ClientModInitializer {
 	 * 클라이언트 이벤트 리스너 등록
 	 */
 	private void registerEventListeners() {
+		// HUD 레이어 (ClientGameData 변경 시에만 다시 그림)
+		JJKHudRenderer.register();
+
+		// GPU 프로파일러 오버레이 (/jjkdebug gpu overlay)
+		GpuProfiler.register();
+
 		// 서버 접속 시
 		ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
 			LOGGER.info("서버 접속: 데이터 초기화");
@@ -106,21 +138,52 @@ public class PaperJJKClientClient implements ClientModInitializer {
 		// WorldRenderEvents를 사용한 렌더링
 		// AFTER_ENTITIES: 엔티티 렌더링 후, 반투명 지형 전에 실행
 		WorldRenderEvents.AFTER_ENTITIES.register((WorldRenderContext context) -> {
-			// Debug cube rendering
+			// 도메인 반지름을 렌더 프레임 시각 기준으로 보간
+			ClientGameData.updateAllDomains(System.nanoTime());
+
+			// 오래 쓰지 않은 렌더 타겟 정리 (풀 프레임 카운터 진행)
+			RenderTargetPool.beginFrame();
+
+			// 공유 GPU 타임스탬프 링 진행: 몇 프레임 전 결과를 예산 컨트롤러와 패스별 프로파일러에 전달 (대기 없음)
+			GpuTimestamps.beginFrame();
+
+			// 지난 프레임의 JJK 비용(CPU/GPU)을 반영해 품질 조절, 이번 프레임 측정 시작
+			FrameBudgetController.beginSection();
+
+			// CameraMatrices는 WorldRendererMixin에서 이번 프레임의 실제 월드 행렬로 갱신됨
 			Camera camera = MinecraftClient.getInstance().gameRenderer.getCamera();
+
+			// Debug cube rendering (debug effect spheres are queued to FresnelShellRenderer)
 			DebugRenderer.render(context.matrices(), camera, context.consumers());
 
+			// Domains and translucent shells: weighted-blended OIT, no sorting needed
+			// Domains: single full-screen raymarch pass for spheres (same OIT targets),
+			// instanced mesh shells for everything it didn't draw (shaped domains, spheres past its
+			// 16-domain limit, or every domain if raymarch is unavailable)
+			if ((!ClientGameData.getAllDomains().isEmpty() || FresnelShellRenderer.hasQueued()) && OitPass.begin()) {
+				GpuProfiler.begin(GpuProfiler.Pass.DOMAIN_RAYMARCH);
+				DomainRaymarchRenderer.render();
+				GpuProfiler.end();
+				GpuProfiler.begin(GpuProfiler.Pass.DOMAIN_SHELLS);
+				DomainShellRenderer.render(DomainRaymarchRenderer.getRaymarchedDomains());
+				GpuProfiler.end();
+				GpuProfiler.begin(GpuProfiler.Pass.FRESNEL_SHELLS);
+				FresnelShellRenderer.render();
+				GpuProfiler.end();
+				GpuProfiler.begin(GpuProfiler.Pass.OIT_RESOLVE);
+				OitPass.end();
+				GpuProfiler.end();
+			}
+			FresnelShellRenderer.clear();
+			FrameBudgetController.endSection();
+
 			// Domain rendering (disabled for now)
 			// float tickDelta = context.tickCounter().getTickDelta(true);
 			// DomainRenderer.render(context.matrices(), tickDelta, camera);
 		});
 
 
-		// Post-processing은 이제 GameRendererMixin에서 처리됩니다 (Iris처럼 renderLevel의 TAIL에 injection)
-
-		// 클라이언트 틱 이벤트: 도메인 반지름 업데이트
-		ClientTickEvents.END_CLIENT_TICK.register(client -> {
-			ClientGameData.updateAllDomains();
-		});
+		// Post-processing(굴절)은 월드 프레임 그래프의 paperjjk_refraction 패스에서 처리됩니다 (JJKFrameGraph)
+		// GameRendererMixin(renderWorld RETURN)은 그 패스가 실행되지 않은 프레임용 fallback입니다
 	}
 }
@@ -1,13 +1,22 @@
 package com.justheare.paperjjk_client.command;
 
 import com.justheare.paperjjk_client.render.DebugRenderer;
+import com.justheare.paperjjk_client.render.FrameBudgetController;
+import com.justheare.paperjjk_client.render.GpuProfiler;
+import com.justheare.paperjjk_client.render.RenderQuality;
+import com.justheare.paperjjk_client.render.SphereLod;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.FloatArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.Vec3d;
 
+import java.util.Locale;
+
 import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.argument;
 import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.literal;
 
@@ -38,6 +47,31 @@ public class DebugCommand {
                 .then(literal("methods")
                     .executes(DebugCommand::inspectMethods)
                 )
+                .then(literal("lod")
+                    .then(argument("bias", FloatArgumentType.floatArg(0.1f, 10.0f))
+                        .executes(DebugCommand::setLodBias)
+                    )
+                    .then(literal("tiers")
+                        .executes(DebugCommand::showLodTiers)
+                        .then(argument("tiers", StringArgumentType.greedyString())
+                            .executes(DebugCommand::setLodTiers)
+                        )
+                    )
+                )
+                .then(qualityNode())
+                .then(literal("budget")
+                    .executes(DebugCommand::showBudget)
+                    .then(argument("ms", FloatArgumentType.floatArg(0.0f, 50.0f))
+                        .executes(DebugCommand::setBudget)
+                    )
+                )
+                .then(literal("gpu")
+                    .executes(DebugCommand::showGpu)
+                    .then(literal("on").executes(context -> setGpuProfiling(context, true)))
+                    .then(literal("off").executes(context -> setGpuProfiling(context, false)))
+                    .then(literal("overlay").executes(DebugCommand::toggleGpuOverlay))
+                    .then(literal("reset").executes(DebugCommand::resetGpu))
+                )
         );
     }
 
@@ -131,4 +165,131 @@ public class DebugCommand {
         );
         return 1;
     }
+
+    private static LiteralArgumentBuilder<FabricClientCommandSource> qualityNode() {
+        LiteralArgumentBuilder<FabricClientCommandSource> node = literal("quality");
+        for (RenderQuality quality : RenderQuality.values()) {
+            node.then(literal(quality.name().toLowerCase(Locale.ROOT))
+                .executes(context -> setQuality(context, quality))
+            );
+        }
+        return node;
+    }
+
+    private static int setQuality(CommandContext<FabricClientCommandSource> context, RenderQuality quality) {
+        RenderQuality.set(quality);
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fRender quality set to §e" + quality
+                + " §7(distortion at 1/" + quality.getDistortionScale() + " resolution)")
+        );
+        return 1;
+    }
+
+    private static int showBudget(CommandContext<FabricClientCommandSource> context) {
+        float budget = FrameBudgetController.getBudget();
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fJJK frame cost §e"
+                + String.format(Locale.ROOT, "%.2f ms §7(GPU %.2f, CPU %.2f)", FrameBudgetController.getCostMs(),
+                    FrameBudgetController.getGpuMs(), FrameBudgetController.getCpuMs())
+                + " §fbudget §e" + (budget > 0.0f ? String.format(Locale.ROOT, "%.1f ms", budget) : "off")
+                + " §flevel §e" + FrameBudgetController.getLevel()
+                + " §7(quality " + RenderQuality.effective() + ")")
+        );
+        return 1;
+    }
+
+    private static int setBudget(CommandContext<FabricClientCommandSource> context) {
+        float budget = FloatArgumentType.getFloat(context, "ms");
+        FrameBudgetController.setBudget(budget);
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fJJK frame budget set to §e"
+                + (budget > 0.0f ? budget + " ms" : "off (full quality)"))
+        );
+        return 1;
+    }
+
+    private static int showGpu(CommandContext<FabricClientCommandSource> context) {
+        if (!GpuProfiler.isEnabled()) {
+            context.getSource().sendFeedback(
+                Text.literal("§6[PaperJJK Debug] §fGPU profiling is off §7(/jjkdebug gpu on)")
+            );
+            return 1;
+        }
+        for (String line : GpuProfiler.formatReport()) {
+            context.getSource().sendFeedback(Text.literal("§7" + line));
+        }
+        return 1;
+    }
+
+    private static int setGpuProfiling(CommandContext<FabricClientCommandSource> context, boolean enabled) {
+        GpuProfiler.setEnabled(enabled);
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fGPU profiling " + (enabled ? "§aENABLED" : "§cDISABLED"))
+        );
+        return 1;
+    }
+
+    private static int toggleGpuOverlay(CommandContext<FabricClientCommandSource> context) {
+        boolean shown = GpuProfiler.toggleOverlay();
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fGPU profiler overlay " + (shown ? "§aSHOWN" : "§cHIDDEN"))
+        );
+        return 1;
+    }
+
+    private static int resetGpu(CommandContext<FabricClientCommandSource> context) {
+        GpuProfiler.reset();
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fGPU profiler samples cleared")
+        );
+        return 1;
+    }
+
+    private static int setLodBias(CommandContext<FabricClientCommandSource> context) {
+        float bias = FloatArgumentType.getFloat(context, "bias");
+        SphereLod.setBias(bias);
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fSphere LOD bias set to §e" + SphereLod.getBias())
+        );
+        return 1;
+    }
+
+    private static int showLodTiers(CommandContext<FabricClientCommandSource> context) {
+        StringBuilder tiers = new StringBuilder();
+        for (int tier = 0; tier < SphereLod.getTierCount(); tier++) {
+            if (tier > 0) {
+                tiers.append(' ');
+            }
+            tiers.append(SphereLod.getSegments(tier)).append(':').append(SphereLod.getThreshold(tier));
+        }
+        context.getSource().sendFeedback(
+            Text.literal("§6[PaperJJK Debug] §fSphere LOD tiers (segments:size) §e" + tiers)
+        );
+        return 1;
+    }
+
+    /**
+     * "segments:size ..." coarse to fine, e.g. "8:0 16:0.05 32:0.2 48:0.6"
+     */
+    private static int setLodTiers(CommandContext<FabricClientCommandSource> context) {
+        String[] entries = StringArgumentType.getString(context, "tiers").trim().split("[\\s,]+");
+        int[] segments = new int[entries.length];
+        float[] thresholds = new float[entries.length];
+        try {
+            for (int i = 0; i < entries.length; i++) {
+                String[] parts = entries[i].split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected segments:size, got \"" + entries[i] + "\"");
+                }
+                segments[i] = Integer.parseInt(parts[0]);
+                thresholds[i] = Float.parseFloat(parts[1]);
+            }
+            SphereLod.setTiers(segments, thresholds);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included
+            context.getSource().sendError(Text.literal("Invalid LOD tiers: " + e.getMessage()));
+            return 0;
+        }
+        return showLodTiers(context);
+    }
 }
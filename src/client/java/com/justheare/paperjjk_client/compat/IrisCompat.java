@@ -0,0 +1,129 @@
+package com.justheare.paperjjk_client.compat;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * Optional Iris bridge: world depth without the hand (depthtex2)
+ *
+ * Iris is detected once at startup and its members are bound to MethodHandles once.
+ * The depth texture id is cached and only looked up again when the Iris pipeline
+ * (shaderpack) or the framebuffer size changes. Without Iris every call returns -1
+ * immediately.
+ */
+public class IrisCompat {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-IrisCompat");
+
+    private static final String PIPELINE_CLASS = "net.irisshaders.iris.pipeline.IrisRenderingPipeline";
+
+    private static boolean available = false;
+
+    // Bound once in init()
+    private static Object pipelineManager;
+    private static MethodHandle getPipelineNullable;
+    private static MethodHandle getRenderTargets;   // Resolved on first shader pipeline
+    private static MethodHandle getDepthTextureNoHand;
+    private static MethodHandle getGlId;
+
+    // Cached lookup
+    private static Object cachedPipeline;
+    private static int cachedWidth = -1;
+    private static int cachedHeight = -1;
+    private static int cachedDepthId = -1;
+
+    /**
+     * Detect Iris and bind its entry points
+     */
+    public static void init() {
+        if (!FabricLoader.getInstance().isModLoaded("iris")) {
+            return;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> irisClass = Class.forName("net.irisshaders.iris.Iris");
+            Object manager = lookup.unreflect(irisClass.getMethod("getPipelineManager")).invoke();
+
+            pipelineManager = manager;
+            getPipelineNullable = lookup.unreflect(manager.getClass().getMethod("getPipelineNullable"));
+            available = true;
+            LOGGER.info("Iris detected, using depthtex2 for refraction occlusion");
+        } catch (Throwable e) {
+            LOGGER.warn("Iris detected but its API could not be bound, using vanilla depth", e);
+        }
+    }
+
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Drop the cached id (resource reload / shaderpack change)
+     */
+    public static void invalidate() {
+        cachedPipeline = null;
+        cachedDepthId = -1;
+    }
+
+    /**
+     * Iris depthtex2 GL id, or -1 if Iris (or a shaderpack) isn't active
+     */
+    public static int getWorldDepthTexture() {
+        if (!available) return -1;
+
+        try {
+            Object pipeline = getPipelineNullable.invoke(pipelineManager);
+            Framebuffer framebuffer = MinecraftClient.getInstance().getFramebuffer();
+
+            if (pipeline != cachedPipeline
+                || framebuffer.textureWidth != cachedWidth
+                || framebuffer.textureHeight != cachedHeight) {
+                cachedPipeline = pipeline;
+                cachedWidth = framebuffer.textureWidth;
+                cachedHeight = framebuffer.textureHeight;
+                cachedDepthId = resolveDepthTexture(pipeline);
+            }
+            return cachedDepthId;
+        } catch (Throwable e) {
+            // Iris internals changed: stop trying instead of failing every frame
+            LOGGER.warn("Iris depth lookup failed, falling back to vanilla depth", e);
+            available = false;
+            return -1;
+        }
+    }
+
+    private static int resolveDepthTexture(Object pipeline) throws Throwable {
+        // Vanilla pipeline (no shaderpack) has no depthtex2
+        if (pipeline == null || !pipeline.getClass().getName().equals(PIPELINE_CLASS)) {
+            return -1;
+        }
+
+        if (getRenderTargets == null) {
+            Field renderTargetsField = pipeline.getClass().getDeclaredField("renderTargets");
+            renderTargetsField.setAccessible(true);
+            getRenderTargets = MethodHandles.lookup().unreflectGetter(renderTargetsField);
+        }
+        Object renderTargets = getRenderTargets.invoke(pipeline);
+        if (renderTargets == null) return -1;
+
+        if (getDepthTextureNoHand == null) {
+            getDepthTextureNoHand = MethodHandles.publicLookup()
+                .unreflect(renderTargets.getClass().getMethod("getDepthTextureNoHand"));
+        }
+        Object depthTexture = getDepthTextureNoHand.invoke(renderTargets);
+        if (depthTexture == null) return -1;
+
+        if (getGlId == null) {
+            getGlId = MethodHandles.publicLookup()
+                .unreflect(depthTexture.getClass().getMethod("iris$getGlId"));
+        }
+        return (int) getGlId.invoke(depthTexture);
+    }
+}
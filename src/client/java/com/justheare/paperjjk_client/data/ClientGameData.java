@@ -3,15 +3,49 @@ package com.justheare.paperjjk_client.data;
 import net.minecraft.util.math.Vec3d;
 
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 서버로부터 받은 게임 데이터를 캐싱하는 클래스
  * HUD 렌더링 시 이 데이터를 사용
+ *
+ * 각 섹션은 버전 카운터를 가지며, 값이 실제로 바뀐 경우에만 증가하고 리스너에 알림.
+ * 소비자는 매 프레임 폴링 대신 버전 비교나 리스너로 변경을 감지할 수 있음.
  */
 public class ClientGameData {
+    /**
+     * 변경 추적 단위
+     */
+    public enum Section {
+        CE,          // currentCE, maxCE, regenRate, blocked
+        TECHNIQUE,   // currentTechnique
+        COOLDOWNS,   // cooldowns
+        DOMAINS      // activeDomains 추가/제거
+    }
+
+    /**
+     * 섹션 변경 리스너 (클라이언트 스레드에서 호출됨)
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChanged(Section section, long version);
+    }
+
+    private static final Map<Section, Long> versions = new EnumMap<>(Section.class);
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    static {
+        for (Section section : Section.values()) {
+            versions.put(section, 0L);
+        }
+    }
+
     // 주술력 정보
     private static int currentCE = 0;
     private static int maxCE = 1000;
@@ -26,40 +60,100 @@ public class ClientGameData {
     // 영역전개 렌더링 정보 (도메인 ID → 도메인 데이터)
     private static final Map<UUID, ActiveDomain> activeDomains = new HashMap<>();
 
+    // === Change Notification ===
+
+    /**
+     * 변경 리스너 등록
+     */
+    public static void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 변경 리스너 해제
+     */
+    public static void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 섹션의 현재 버전 (값이 바뀔 때마다 증가)
+     */
+    public static long getVersion(Section section) {
+        return versions.get(section);
+    }
+
+    /**
+     * 섹션 버전 증가 및 리스너 알림
+     */
+    private static void markChanged(Section section) {
+        long version = versions.get(section) + 1;
+        versions.put(section, version);
+        for (ChangeListener listener : listeners) {
+            listener.onChanged(section, version);
+        }
+    }
+
+    /**
+     * CE_UPDATE 패킷 한 번에 적용 (섹션당 최대 한 번만 알림)
+     */
+    public static void applyCEUpdate(int current, int max, float rate, String technique, boolean isBlocked) {
+        boolean ceChanged = currentCE != current || maxCE != max || regenRate != rate || blocked != isBlocked;
+        if (ceChanged) {
+            currentCE = current;
+            maxCE = max;
+            regenRate = rate;
+            blocked = isBlocked;
+            markChanged(Section.CE);
+        }
+        setTechnique(technique);
+    }
+
     /**
      * 주술력 설정
      */
     public static void setCE(int current, int max) {
+        if (currentCE == current && maxCE == max) return;
         currentCE = current;
         maxCE = max;
+        markChanged(Section.CE);
     }
 
     /**
      * 회복량 설정
      */
     public static void setRegenRate(float rate) {
+        if (regenRate == rate) return;
         regenRate = rate;
+        markChanged(Section.CE);
     }
 
     /**
      * 현재 술식 설정
      */
     public static void setTechnique(String technique) {
+        if (Objects.equals(currentTechnique, technique)) return;
         currentTechnique = technique;
+        markChanged(Section.TECHNIQUE);
     }
 
     /**
      * 차단 상태 설정
      */
     public static void setBlocked(boolean isBlocked) {
+        if (blocked == isBlocked) return;
         blocked = isBlocked;
+        markChanged(Section.CE);
     }
 
     /**
      * 쿨다운 설정
      */
     public static void setCooldown(byte slot, int currentTicks, int maxTicks) {
+        CooldownData existing = cooldowns.get(slot);
+        if (existing != null && existing.currentTicks == currentTicks && existing.maxTicks == maxTicks) return;
         cooldowns.put(slot, new CooldownData(currentTicks, maxTicks));
+        markChanged(Section.COOLDOWNS);
     }
 
     // Getters
@@ -103,13 +197,15 @@ public class ClientGameData {
      * 모든 데이터 초기화 (서버 나갈 때 호출)
      */
     public static void reset() {
-        currentCE = 0;
-        maxCE = 1000;
-        regenRate = 0.0f;
-        currentTechnique = "없음";
-        blocked = false;
-        cooldowns.clear();
-        activeDomains.clear();
+        applyCEUpdate(0, 1000, 0.0f, "없음", false);
+        if (!cooldowns.isEmpty()) {
+            cooldowns.clear();
+            markChanged(Section.COOLDOWNS);
+        }
+        if (!activeDomains.isEmpty()) {
+            activeDomains.clear();
+            markChanged(Section.DOMAINS);
+        }
     }
 
     // === Domain Management ===
@@ -119,31 +215,35 @@ public class ClientGameData {
      */
     public static void addDomain(UUID id, ActiveDomain domain) {
         activeDomains.put(id, domain);
+        markChanged(Section.DOMAINS);
     }
 
     /**
      * Remove domain from rendering
      */
     public static void removeDomain(UUID id) {
-        activeDomains.remove(id);
+        if (activeDomains.remove(id) != null) {
+            markChanged(Section.DOMAINS);
+        }
     }
 
     /**
      * Sync domain radius with server
+     * Radius changes are continuous and do not bump the DOMAINS version
      */
     public static void syncDomain(UUID id, float serverRadius) {
         ActiveDomain domain = activeDomains.get(id);
         if (domain != null) {
-            domain.syncFromServer(serverRadius);
+            domain.addSample(System.nanoTime(), serverRadius);
         }
     }
 
     /**
-     * Update all domains (called every client tick)
+     * Evaluate all domain radii for the current render frame
      */
-    public static void updateAllDomains() {
+    public static void updateAllDomains(long frameTimeNanos) {
         for (ActiveDomain domain : activeDomains.values()) {
-            domain.updateRadius();
+            domain.updateFrame(frameTimeNanos);
         }
     }
 
@@ -167,10 +267,12 @@ public class ClientGameData {
     public static class CooldownData {
         private final int currentTicks;
         private final int maxTicks;
+        private final long receivedAt; // 수신 시각 (ms), 클라이언트 측 애니메이션용
 
         public CooldownData(int currentTicks, int maxTicks) {
             this.currentTicks = currentTicks;
             this.maxTicks = maxTicks;
+            this.receivedAt = System.currentTimeMillis();
         }
 
         public int getCurrentTicks() {
@@ -194,82 +296,169 @@ public class ClientGameData {
         public float getSecondsRemaining() {
             return currentTicks / 20.0f; // 틱 → 초 변환
         }
+
+        public long getReceivedAt() {
+            return receivedAt;
+        }
     }
 
     /**
      * Active domain expansion data
      * Client-side rendering info for barrier-less domain expansion
+     *
+     * Radius samples from the server are kept in a small ring buffer and evaluated at render-frame
+     * time: interpolated between samples when possible, dead-reckoned from the latest sample
+     * (or the START expansion speed) otherwise. Prediction errors are blended out, never snapped.
+     *
+     * Samples are timed by arrival, so packets bunched up behind a hitch are spread at least a
+     * tick apart, and the extrapolation velocity is a least-squares fit over the whole ring,
+     * clamped to a few times the START speed: a burst can't launch the radius to maxRadius.
      */
     public static class ActiveDomain {
+        private static final int SAMPLE_CAPACITY = 8;
+        private static final long INTERPOLATION_DELAY_NANOS = 100_000_000L; // 100ms behind newest sample
+        private static final double CORRECTION_TIME_CONSTANT_NANOS = 150_000_000.0; // Error blend-out
+        private static final float TICKS_PER_SECOND = 20.0f;
+        private static final long TICK_NANOS = 50_000_000L; // Minimum spacing of sample times
+        private static final float MAX_SPEED_FACTOR = 3.0f; // Velocity clamp, times the START speed
+
         public UUID domainId;
         public Vec3d center;
-        public float currentRadius;
+        public float currentRadius; // Radius evaluated for the current render frame
         public float maxRadius;
-        public float expansionSpeed; // blocks per tick (recalculated on sync)
+        public float expansionSpeed; // blocks per tick (from START packet)
         public int color;
         public int domainType;
-        public long lastSyncTime; // When we last received server update
         public float serverRadius; // Last known server radius
-        public boolean isExpanding;
+
+        // Ring buffer of (arrival time, radius) samples
+        private final long[] sampleTimes = new long[SAMPLE_CAPACITY];
+        private final float[] sampleRadii = new float[SAMPLE_CAPACITY];
+        private int sampleCount = 0;
+        private int newestIndex = -1;
+
+        // Visual error left over from the previous prediction, decays over time
+        private float correction = 0.0f;
+        private long correctionTime = 0L;
 
         /**
-         * Update current radius - smoothly chase server radius
-         * Never exceeds server radius, gradually catches up
+         * Record a radius sample (START seeds it with 0, SYNC adds server radius)
+         * The protocol carries no server timestamp, so local arrival time is used; samples
+         * arriving in a burst (after a hitch) are spread one tick apart, as the server sent them
          */
-        public void updateRadius() {
-            if (!isExpanding || currentRadius >= maxRadius) {
-                currentRadius = Math.min(maxRadius, serverRadius);
-                if (currentRadius >= maxRadius) {
-                    isExpanding = false;
-                }
-                return;
+        public void addSample(long timeNanos, float radius) {
+            float visualBefore = sampleCount > 0 ? getRenderRadius(timeNanos) : radius;
+
+            long sampleTime = sampleCount > 0
+                ? Math.max(timeNanos, sampleTimes[newestIndex] + TICK_NANOS)
+                : timeNanos;
+            newestIndex = (newestIndex + 1) % SAMPLE_CAPACITY;
+            sampleTimes[newestIndex] = sampleTime;
+            sampleRadii[newestIndex] = radius;
+            if (sampleCount < SAMPLE_CAPACITY) {
+                sampleCount++;
             }
+            serverRadius = radius;
+
+            // Keep the visible radius continuous; the difference is blended out over time
+            correction = visualBefore - evaluate(timeNanos);
+            correctionTime = timeNanos;
+        }
+
+        /**
+         * Update currentRadius for this render frame
+         */
+        public void updateFrame(long frameTimeNanos) {
+            currentRadius = getRenderRadius(frameTimeNanos);
+        }
 
-            // Calculate how much we can grow this tick
-            // We chase the server radius but never exceed it
-            if (currentRadius < serverRadius) {
-                // Grow towards server radius at calculated speed
-                currentRadius = Math.min(serverRadius, currentRadius + expansionSpeed);
+        /**
+         * Radius to display at the given time, including blended-out correction
+         */
+        public float getRenderRadius(long timeNanos) {
+            float radius = evaluate(timeNanos);
+            if (correction != 0.0f) {
+                double age = Math.max(0L, timeNanos - correctionTime);
+                radius += correction * (float) Math.exp(-age / CORRECTION_TIME_CONSTANT_NANOS);
             }
-            // If currentRadius >= serverRadius, don't grow (wait for next server update)
+            return clampRadius(radius);
         }
 
         /**
-         * Sync with server radius (called frequently by server)
-         * Recalculates expansion speed to smoothly reach new server radius
+         * Interpolate between buffered samples, or dead-reckon past the newest one
          */
-        public void syncFromServer(float newServerRadius) {
-            long currentTime = System.currentTimeMillis();
-            long timeSinceLastSync = currentTime - lastSyncTime;
-
-            if (timeSinceLastSync > 0 && newServerRadius > serverRadius) {
-                // Server radius increased - calculate new expansion speed
-                // Speed = how much server grew / time elapsed
-                float serverGrowth = newServerRadius - serverRadius;
-                float timeInTicks = timeSinceLastSync / 50.0f; // ms to ticks (50ms per tick)
-
-                if (timeInTicks > 0) {
-                    // Calculate speed to catch up smoothly
-                    float newSpeed = serverGrowth / timeInTicks;
-
-                    // Apply some smoothing to avoid jerky speed changes
-                    if (expansionSpeed > 0) {
-                        // Weighted average: 70% old speed, 30% new speed
-                        expansionSpeed = expansionSpeed * 0.7f + newSpeed * 0.3f;
-                    } else {
-                        expansionSpeed = newSpeed;
-                    }
+        private float evaluate(long timeNanos) {
+            if (sampleCount == 0) {
+                return 0.0f;
+            }
+
+            long renderTime = timeNanos - INTERPOLATION_DELAY_NANOS;
+            long newestTime = sampleTimes[newestIndex];
+
+            if (renderTime >= newestTime) {
+                // Past the newest sample: extrapolate
+                float seconds = (renderTime - newestTime) / 1_000_000_000.0f;
+                return clampRadius(sampleRadii[newestIndex] + getVelocity() * seconds);
+            }
+
+            // Walk backwards to find the samples bracketing renderTime
+            int newer = newestIndex;
+            for (int i = 1; i < sampleCount; i++) {
+                int older = (newestIndex - i + SAMPLE_CAPACITY) % SAMPLE_CAPACITY;
+                if (sampleTimes[older] <= renderTime) {
+                    long span = sampleTimes[newer] - sampleTimes[older];
+                    float t = span > 0 ? (float) (renderTime - sampleTimes[older]) / span : 1.0f;
+                    return sampleRadii[older] + (sampleRadii[newer] - sampleRadii[older]) * t;
                 }
+                newer = older;
             }
 
-            // Update server tracking
-            serverRadius = newServerRadius;
-            lastSyncTime = currentTime;
+            // Older than everything we have
+            return sampleRadii[newer];
+        }
 
-            // If client somehow got ahead (shouldn't happen), snap back
-            if (currentRadius > serverRadius) {
-                currentRadius = serverRadius;
+        /**
+         * Expansion velocity in blocks per second
+         * Least-squares slope over the buffered samples once they span at least a tick,
+         * otherwise the START packet's speed; clamped to MAX_SPEED_FACTOR times that speed
+         */
+        private float getVelocity() {
+            float startSpeed = expansionSpeed * TICKS_PER_SECOND;
+            if (sampleCount < 2) {
+                return startSpeed;
             }
+
+            int oldest = (newestIndex - sampleCount + 1 + SAMPLE_CAPACITY) % SAMPLE_CAPACITY;
+            long origin = sampleTimes[oldest];
+            if (sampleTimes[newestIndex] - origin < TICK_NANOS) {
+                return startSpeed;
+            }
+
+            // Times relative to the oldest sample, in seconds (keeps the sums well conditioned)
+            double sumT = 0.0;
+            double sumR = 0.0;
+            double sumTT = 0.0;
+            double sumTR = 0.0;
+            for (int i = 0; i < sampleCount; i++) {
+                int index = (oldest + i) % SAMPLE_CAPACITY;
+                double t = (sampleTimes[index] - origin) / 1_000_000_000.0;
+                sumT += t;
+                sumR += sampleRadii[index];
+                sumTT += t * t;
+                sumTR += t * sampleRadii[index];
+            }
+            double denominator = sampleCount * sumTT - sumT * sumT;
+            if (denominator <= 0.0) {
+                return startSpeed;
+            }
+
+            float slope = (float) ((sampleCount * sumTR - sumT * sumR) / denominator);
+            float limit = Math.abs(startSpeed) * MAX_SPEED_FACTOR;
+            return Math.max(-limit, Math.min(limit, slope));
+        }
+
+        private float clampRadius(float radius) {
+            return Math.max(0.0f, Math.min(maxRadius, radius));
         }
     }
 }
@@ -0,0 +1,458 @@
+package com.justheare.paperjjk_client.hud;
+
+import com.justheare.paperjjk_client.data.ClientGameData;
+import com.justheare.paperjjk_client.render.MainFramebufferTarget;
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.GlState;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+import net.minecraft.text.Text;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cached HUD layer: CE gauge, technique slots and cooldowns
+ *
+ * The static parts are rendered into an offscreen texture only when ClientGameData changes,
+ * and composited every frame with one textured quad. Cooldown sweeps are animated in the
+ * composite shader from the packet receipt time, so they never force a layer rebuild.
+ */
+public class JJKHudRenderer {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-HUD");
+
+    public static final int SLOT_COUNT = 4;
+
+    // Layout in GUI units (multiplied by the GUI scale)
+    private static final int MARGIN = 10;
+    private static final int GAUGE_WIDTH = 100;
+    private static final int GAUGE_HEIGHT = 6;
+    private static final int SLOT_SIZE = 20;
+    private static final int SLOT_SPACING = 4;
+    private static final int SLOT_BOTTOM = 50;  // Above hotbar, hearts and hunger
+    private static final int LAYER_HEIGHT = SLOT_BOTTOM + SLOT_SIZE + 2;
+
+    private static final int MAX_RECTS = 32;
+    private static final int FLOATS_PER_VERTEX = 6; // x, y, r, g, b, a
+
+    private static PostProcessingShader rectShader;
+    private static PostProcessingShader compositeShader;
+    private static int rectVao = -1;
+    private static int rectVbo = -1;
+    private static int compositeVao = -1;
+
+    // Cached layer
+    private static int layerFbo = -1;
+    private static int layerTexture = -1;
+    private static int layerWidth = -1;
+    private static int layerHeight = -1;
+    private static float layerScale = -1;
+
+    private static final float[] rectVertices = new float[MAX_RECTS * 6 * FLOATS_PER_VERTEX];
+    private static int rectVertexCount = 0;
+
+    // Cooldown sweep uniforms (x0, y0, x1, y1 / remaining s, total s, received s)
+    private static final float[] slotRects = new float[SLOT_COUNT * 4];
+    private static final float[] cooldowns = new float[SLOT_COUNT * 3];
+    private static final long startMillis = System.currentTimeMillis();
+
+    // Text labels, rebuilt only on change
+    private static Text ceLabel = Text.empty();
+    private static Text techniqueLabel = Text.empty();
+
+    private static boolean layerDirty = true;
+    private static boolean cooldownsDirty = true;
+    private static boolean labelsDirty = true;
+    private static boolean initialized = false;
+    private static boolean failed = false;
+
+    /**
+     * Register change listener and text callback
+     */
+    public static void register() {
+        ClientGameData.addListener((section, version) -> {
+            switch (section) {
+                case CE, TECHNIQUE -> {
+                    layerDirty = true;
+                    labelsDirty = true;
+                }
+                case COOLDOWNS -> cooldownsDirty = true;
+                default -> { }
+            }
+        });
+
+        HudRenderCallback.EVENT.register(JJKHudRenderer::renderLabels);
+        LOGGER.info("HUD layer registered");
+    }
+
+    /**
+     * Issue the HUD shader builds and create the GL objects (ShaderWarmup stage)
+     */
+    public static void init() {
+        if (initialized || failed) return;
+
+        String rectVertex = """
+            #version 330 core
+
+            layout(location = 0) in vec2 aPosition;
+            layout(location = 1) in vec4 aColor;
+
+            out vec4 vColor;
+
+            void main() {
+                gl_Position = vec4(aPosition, 0.0, 1.0);
+                vColor = aColor;
+            }
+            """;
+
+        String rectFragment = """
+            #version 330 core
+
+            in vec4 vColor;
+            out vec4 fragColor;
+
+            void main() {
+                fragColor = vColor;
+            }
+            """;
+
+        // Quad over the bottom band of the screen covered by the layer
+        String compositeVertex = """
+            #version 330 core
+
+            uniform float uLayerTop;  // NDC y of the layer's top edge
+
+            out vec2 texCoord;
+
+            void main() {
+                vec2 uv = vec2(gl_VertexID & 1, (gl_VertexID >> 1) & 1);
+                gl_Position = vec4(uv.x * 2.0 - 1.0, mix(-1.0, uLayerTop, uv.y), 0.0, 1.0);
+                texCoord = uv;
+            }
+            """;
+
+        String compositeFragment = """
+            #version 330 core
+
+            uniform sampler2D uLayer;
+            uniform vec2 uLayerSize;
+            uniform vec4 uSlotRects[4];   // x0, y0, x1, y1 in layer pixels
+            uniform vec3 uCooldowns[4];   // remaining seconds at receipt, total seconds, receipt time
+            uniform float uTime;
+
+            in vec2 texCoord;
+            out vec4 fragColor;
+
+            const float TAU = 6.28318530718;
+
+            void main() {
+                vec4 color = texture(uLayer, texCoord);
+                vec2 pixel = texCoord * uLayerSize;
+
+                for (int i = 0; i < 4; i++) {
+                    vec4 rect = uSlotRects[i];
+                    if (pixel.x < rect.x || pixel.y < rect.y || pixel.x > rect.z || pixel.y > rect.w) {
+                        continue;
+                    }
+
+                    vec3 cooldown = uCooldowns[i];
+                    if (cooldown.y <= 0.0) break;
+
+                    float remaining = clamp((cooldown.x - (uTime - cooldown.z)) / cooldown.y, 0.0, 1.0);
+
+                    // Clockwise sweep starting at 12 o'clock; the shaded part shrinks as the cooldown ends
+                    vec2 dir = pixel - (rect.xy + rect.zw) * 0.5;
+                    float angle = fract(atan(dir.x, dir.y) / TAU + 1.0);
+                    if (angle >= 1.0 - remaining) {
+                        color = vec4(mix(color.rgb, vec3(0.0), 0.6), max(color.a, 0.6));
+                    }
+                    break;
+                }
+
+                fragColor = color;
+            }
+            """;
+
+        rectShader = new PostProcessingShader(rectVertex, rectFragment);
+        rectShader.compileAsync();
+        compositeShader = new PostProcessingShader(compositeVertex, compositeFragment);
+        compositeShader.compileAsync();
+
+        rectVao = GL30.glGenVertexArrays();
+        rectVbo = GL15.glGenBuffers();
+        GL30.glBindVertexArray(rectVao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, rectVbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) rectVertices.length * Float.BYTES, GL15.GL_DYNAMIC_DRAW);
+        GL20.glEnableVertexAttribArray(0);
+        GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, FLOATS_PER_VERTEX * Float.BYTES, 0);
+        GL20.glEnableVertexAttribArray(1);
+        GL20.glVertexAttribPointer(1, 4, GL11.GL_FLOAT, false, FLOATS_PER_VERTEX * Float.BYTES, 2L * Float.BYTES);
+        GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        compositeVao = GL30.glGenVertexArrays();
+        initialized = true;
+    }
+
+    /**
+     * Composite the HUD layer onto the main framebuffer
+     * Called after world rendering, before vanilla GUI
+     */
+    public static void render() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null || client.options.hudHidden || failed) return;
+
+        RenderSystem.assertOnRenderThread();
+        if (!initialized) return;
+
+        // Still linking: skip the layer this frame (labels are drawn by vanilla regardless)
+        boolean ready = rectShader.isReady() & compositeShader.isReady(); // Poll both, no short-circuit
+        if (rectShader.isFailed() || compositeShader.isFailed()) {
+            LOGGER.error("Failed to compile HUD shaders, HUD layer disabled");
+            failed = true;
+            return;
+        }
+        if (!ready) return;
+
+        Framebuffer mainFramebuffer = client.getFramebuffer();
+        float scale = (float) client.getWindow().getScaleFactor();
+        int width = mainFramebuffer.textureWidth;
+        int height = Math.min(mainFramebuffer.textureHeight, Math.round(LAYER_HEIGHT * scale));
+
+        if (layerTexture == -1 || width != layerWidth || height != layerHeight || scale != layerScale) {
+            createLayer(width, height);
+            layerScale = scale;
+            layerDirty = true;
+            cooldownsDirty = true;
+        }
+
+        GlState.depthTest(false);
+
+        if (layerDirty) {
+            rebuildLayer(scale);
+            layerDirty = false;
+        }
+        if (cooldownsDirty) {
+            updateCooldowns();
+            cooldownsDirty = false;
+        }
+
+        if (MainFramebufferTarget.bind(false)) {
+            GlState.alphaBlend();
+
+            compositeShader.use();
+            GlState.bindTexture(0, layerTexture);
+            GL20.glUniform1i(compositeShader.getUniformLocation("uLayer"), 0);
+            GL20.glUniform2f(compositeShader.getUniformLocation("uLayerSize"), layerWidth, layerHeight);
+            GL20.glUniform1f(compositeShader.getUniformLocation("uLayerTop"),
+                -1.0f + 2.0f * layerHeight / mainFramebuffer.textureHeight);
+            GL20.glUniform4fv(compositeShader.getUniformLocation("uSlotRects"), slotRects);
+            GL20.glUniform3fv(compositeShader.getUniformLocation("uCooldowns"), cooldowns);
+            GL20.glUniform1f(compositeShader.getUniformLocation("uTime"), currentSeconds());
+
+            GL30.glBindVertexArray(compositeVao);
+            GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
+
+            GL30.glBindVertexArray(0);
+            GL20.glUseProgram(0);
+            GlState.bindFramebuffer(0);
+        }
+    }
+
+    /**
+     * (Re)create the layer texture and its FBO
+     */
+    private static void createLayer(int width, int height) {
+        if (layerTexture != -1) {
+            GlState.deleteTexture(layerTexture);
+        }
+        if (layerFbo == -1) {
+            layerFbo = GL30.glGenFramebuffers();
+        }
+
+        layerTexture = GL11.glGenTextures();
+        GlState.bindTexture(0, layerTexture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height,
+            0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (java.nio.ByteBuffer) null);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+
+        GlState.bindFramebuffer(layerFbo);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+            GL11.GL_TEXTURE_2D, layerTexture, 0);
+        GlState.bindFramebuffer(0);
+
+        layerWidth = width;
+        layerHeight = height;
+    }
+
+    /**
+     * Re-render the static HUD geometry into the layer texture
+     */
+    private static void rebuildLayer(float scale) {
+        rectVertexCount = 0;
+
+        // CE gauge (bottom-left)
+        float gaugeX = MARGIN * scale;
+        float gaugeY = MARGIN * scale;
+        float gaugeW = GAUGE_WIDTH * scale;
+        float gaugeH = GAUGE_HEIGHT * scale;
+        float border = Math.max(1.0f, scale);
+        addRect(gaugeX - border, gaugeY - border, gaugeX + gaugeW + border, gaugeY + gaugeH + border,
+            0.0f, 0.0f, 0.0f, 0.7f);
+        addRect(gaugeX, gaugeY, gaugeX + gaugeW, gaugeY + gaugeH, 0.15f, 0.15f, 0.2f, 0.8f);
+
+        float fill = Math.max(0.0f, Math.min(1.0f, ClientGameData.getCEPercentage()));
+        if (ClientGameData.isBlocked()) {
+            addRect(gaugeX, gaugeY, gaugeX + gaugeW * fill, gaugeY + gaugeH, 0.8f, 0.2f, 0.2f, 0.9f);
+        } else {
+            addRect(gaugeX, gaugeY, gaugeX + gaugeW * fill, gaugeY + gaugeH, 0.3f, 0.6f, 1.0f, 0.9f);
+        }
+
+        // Technique slots (bottom-center)
+        float guiWidth = layerWidth / scale;
+        float slotsWidth = SLOT_COUNT * SLOT_SIZE + (SLOT_COUNT - 1) * SLOT_SPACING;
+        float startX = (guiWidth - slotsWidth) / 2.0f;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            float x0 = (startX + i * (SLOT_SIZE + SLOT_SPACING)) * scale;
+            float y0 = SLOT_BOTTOM * scale;
+            float x1 = x0 + SLOT_SIZE * scale;
+            float y1 = y0 + SLOT_SIZE * scale;
+
+            addRect(x0 - border, y0 - border, x1 + border, y1 + border, 0.8f, 0.8f, 0.9f, 0.8f);
+            addRect(x0, y0, x1, y1, 0.05f, 0.05f, 0.1f, 0.6f);
+
+            slotRects[i * 4] = x0;
+            slotRects[i * 4 + 1] = y0;
+            slotRects[i * 4 + 2] = x1;
+            slotRects[i * 4 + 3] = y1;
+        }
+
+        GlState.bindFramebuffer(layerFbo);
+        GlState.viewport(0, 0, layerWidth, layerHeight);
+        GL11.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+        GlState.blend(false);
+
+        rectShader.use();
+        GL30.glBindVertexArray(rectVao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, rectVbo);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0,
+            java.util.Arrays.copyOf(rectVertices, rectVertexCount * FLOATS_PER_VERTEX));
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, rectVertexCount);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL30.glBindVertexArray(0);
+        GL20.glUseProgram(0);
+        GlState.bindFramebuffer(0);
+    }
+
+    /**
+     * Snapshot cooldown state for the sweep shader
+     */
+    private static void updateCooldowns() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            ClientGameData.CooldownData data = ClientGameData.getCooldown((byte) (i + 1));
+            cooldowns[i * 3] = data.getSecondsRemaining();
+            cooldowns[i * 3 + 1] = data.getMaxTicks() / 20.0f;
+            cooldowns[i * 3 + 2] = (data.getReceivedAt() - startMillis) / 1000.0f;
+        }
+    }
+
+    /**
+     * Add a rectangle (layer pixel coordinates, origin bottom-left) as two triangles
+     */
+    private static void addRect(float x0, float y0, float x1, float y1, float r, float g, float b, float a) {
+        if (rectVertexCount + 6 > MAX_RECTS * 6) return;
+
+        float nx0 = x0 / layerWidth * 2.0f - 1.0f;
+        float ny0 = y0 / layerHeight * 2.0f - 1.0f;
+        float nx1 = x1 / layerWidth * 2.0f - 1.0f;
+        float ny1 = y1 / layerHeight * 2.0f - 1.0f;
+
+        addVertex(nx0, ny0, r, g, b, a);
+        addVertex(nx1, ny0, r, g, b, a);
+        addVertex(nx1, ny1, r, g, b, a);
+        addVertex(nx0, ny0, r, g, b, a);
+        addVertex(nx1, ny1, r, g, b, a);
+        addVertex(nx0, ny1, r, g, b, a);
+    }
+
+    private static void addVertex(float x, float y, float r, float g, float b, float a) {
+        int i = rectVertexCount * FLOATS_PER_VERTEX;
+        rectVertices[i] = x;
+        rectVertices[i + 1] = y;
+        rectVertices[i + 2] = r;
+        rectVertices[i + 3] = g;
+        rectVertices[i + 4] = b;
+        rectVertices[i + 5] = a;
+        rectVertexCount++;
+    }
+
+    private static float currentSeconds() {
+        return (System.currentTimeMillis() - startMillis) / 1000.0f;
+    }
+
+    /**
+     * Text labels go through the vanilla text renderer; only the strings are cached
+     */
+    private static void renderLabels(DrawContext context, RenderTickCounter tickCounter) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null || client.options.hudHidden || failed) return;
+
+        if (labelsDirty) {
+            ceLabel = Text.literal(ClientGameData.getCurrentCE() + " / " + ClientGameData.getMaxCE());
+            techniqueLabel = Text.literal(ClientGameData.getCurrentTechnique());
+            labelsDirty = false;
+        }
+
+        int gaugeTop = context.getScaledWindowHeight() - MARGIN - GAUGE_HEIGHT;
+        context.drawText(client.textRenderer, techniqueLabel, MARGIN, gaugeTop - 20, 0xFFFFFFFF, true);
+        context.drawText(client.textRenderer, ceLabel, MARGIN, gaugeTop - 10, 0xFFAAD4FF, true);
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (rectShader != null) {
+            rectShader.delete();
+            rectShader = null;
+        }
+        if (compositeShader != null) {
+            compositeShader.delete();
+            compositeShader = null;
+        }
+        if (rectVao != -1) {
+            GL30.glDeleteVertexArrays(rectVao);
+            rectVao = -1;
+        }
+        if (rectVbo != -1) {
+            GL15.glDeleteBuffers(rectVbo);
+            rectVbo = -1;
+        }
+        if (compositeVao != -1) {
+            GL30.glDeleteVertexArrays(compositeVao);
+            compositeVao = -1;
+        }
+        if (layerFbo != -1) {
+            GL30.glDeleteFramebuffers(layerFbo);
+            layerFbo = -1;
+        }
+        if (layerTexture != -1) {
+            GlState.deleteTexture(layerTexture);
+            layerTexture = -1;
+        }
+        layerWidth = -1;
+        layerHeight = -1;
+        layerDirty = true;
+        initialized = false;
+    }
+}
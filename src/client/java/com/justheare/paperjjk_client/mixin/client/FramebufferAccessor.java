@@ -0,0 +1,18 @@
+package com.justheare.paperjjk_client.mixin.client;
+
+import com.mojang.blaze3d.textures.GpuTexture;
+import net.minecraft.client.gl.Framebuffer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Accessor for Framebuffer's color and depth attachments (see RenderHandles)
+ */
+@Mixin(Framebuffer.class)
+public interface FramebufferAccessor {
+    @Accessor("colorAttachment")
+    GpuTexture paperjjk$getColorAttachment();
+
+    @Accessor("depthAttachment")
+    GpuTexture paperjjk$getDepthAttachment();
+}
@@ -1,6 +1,5 @@
 package com.justheare.paperjjk_client.mixin.client;
 
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.GameRenderer;
 import net.minecraft.client.render.RenderTickCounter;
 import org.spongepowered.asm.mixin.Mixin;
@@ -17,102 +16,24 @@ public class GameRendererMixin {
 
     @Inject(method = "renderWorld", at = @At("RETURN"))
     private void paperjjk$applyPostProcessing(RenderTickCounter tickCounter, CallbackInfo ci) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.world == null || client.player == null) return;
+        // Effects are queued and drawn by the frame-graph pass (JJKFrameGraph)
+        // Anything still queued here means that pass didn't run this frame
+        if (!com.justheare.paperjjk_client.render.CustomPostProcessing.hasQueuedEffects()) return;
 
-        // Get all refraction effects
-        java.util.List<com.justheare.paperjjk_client.shader.RefractionEffectManager.RefractionEffect> effects =
-            com.justheare.paperjjk_client.shader.RefractionEffectManager.getEffects();
-
-        if (effects.isEmpty()) return;
-
-        //System.out.println("[GameRendererMixin] renderWorld RETURN - applying post-processing!");
-
-        // Get camera and projection matrix
-        net.minecraft.client.render.Camera camera = client.gameRenderer.getCamera();
-        org.joml.Matrix4f projectionMatrix = new org.joml.Matrix4f(
-            client.gameRenderer.getBasicProjectionMatrix(
-                client.options.getFov().getValue().floatValue()
-            )
-        );
-
-        // Get view matrix (camera transformation)
-        org.joml.Matrix4f viewMatrix = new org.joml.Matrix4f();
-        viewMatrix.rotationX((float) Math.toRadians(camera.getPitch()));
-        viewMatrix.rotateY((float) Math.toRadians(camera.getYaw()+180.0f));
-        viewMatrix.translate(
-            (float) -camera.getPos().x,
-            (float) -camera.getPos().y,
-            (float) -camera.getPos().z
-        );
-
-        // Apply each refraction effect
-        for (com.justheare.paperjjk_client.shader.RefractionEffectManager.RefractionEffect effect : effects) {
-            // Convert world position to screen coordinates
-            net.minecraft.util.math.Vec3d screenPos =
-                com.justheare.paperjjk_client.util.WorldToScreenUtil.worldToScreen(
-                    effect.worldPos, camera, projectionMatrix);
-
-            if (screenPos != null) {
-                float distance = (float) screenPos.z;
-                float baseRadius = effect.radius;
-                float scaledRadius = baseRadius / Math.max(1.0f, distance / 10.0f);
-                float finalStrength = effect.strength * 0.1f;
-
-                // Calculate effect depth in [0, 1] range for occlusion testing
-                float effectDepth = calculateDepth(effect.worldPos, viewMatrix, projectionMatrix);
-
-                /*.out.println("[GameRendererMixin] Applying distortion: center=(" +
-                    String.format("%.3f", screenPos.x) + "," + String.format("%.3f", screenPos.y) +
-                    ") radius=" + String.format("%.3f", scaledRadius) +
-                    " strength=" + String.format("%.3f", finalStrength) +
-                    " depth=" + String.format("%.3f", effectDepth));*/
-
-                // Apply custom post-processing with depth
-                com.justheare.paperjjk_client.render.CustomPostProcessing.render(
-                    (float) screenPos.x,
-                    (float) screenPos.y,
-                    scaledRadius,
-                    finalStrength,
-                    effectDepth
-                );
-            }
-        }
+        com.justheare.paperjjk_client.render.FrameBudgetController.beginSection();
+        com.justheare.paperjjk_client.render.CustomPostProcessing.render();
+        com.justheare.paperjjk_client.render.FrameBudgetController.endSection();
     }
 
     /**
-     * Calculate depth value [0, 1] for a world position
-     * This converts world space → view space → clip space → depth space
+     * Composite the cached HUD layer after post-processing, so it isn't distorted
      */
-    private float calculateDepth(net.minecraft.util.math.Vec3d worldPos,
-                                  org.joml.Matrix4f viewMatrix,
-                                  org.joml.Matrix4f projectionMatrix) {
-        // Transform world position to clip space
-        org.joml.Vector4f clipPos = new org.joml.Vector4f(
-            (float) worldPos.x,
-            (float) worldPos.y,
-            (float) worldPos.z,
-            1.0f
-        );
-
-        // Apply view matrix (world → view space)
-        viewMatrix.transform(clipPos);
-
-        // Apply projection matrix (view → clip space)
-        projectionMatrix.transform(clipPos);
-
-        // Perspective divide (clip space → NDC [-1, 1])
-        if (clipPos.w != 0) {
-            clipPos.x /= clipPos.w;
-            clipPos.y /= clipPos.w;
-            clipPos.z /= clipPos.w;
-        }
-
-        // Convert NDC depth to [0, 1] range (same as OpenGL depth buffer)
-        // NDC z is in [-1, 1], depth buffer is [0, 1]
-        float depth = (clipPos.z + 1.0f) * 0.5f;
-
-        // Clamp to valid range
-        return Math.max(0.0f, Math.min(1.0f, depth));
+    @Inject(method = "renderWorld", at = @At("RETURN"))
+    private void paperjjk$renderHud(RenderTickCounter tickCounter, CallbackInfo ci) {
+        com.justheare.paperjjk_client.render.FrameBudgetController.beginSection();
+        com.justheare.paperjjk_client.render.GpuProfiler.begin(com.justheare.paperjjk_client.render.GpuProfiler.Pass.HUD);
+        com.justheare.paperjjk_client.hud.JJKHudRenderer.render();
+        com.justheare.paperjjk_client.render.GpuProfiler.end();
+        com.justheare.paperjjk_client.render.FrameBudgetController.endSection();
     }
 }
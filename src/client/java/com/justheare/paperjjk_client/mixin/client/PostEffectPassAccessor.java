@@ -0,0 +1,14 @@
+package com.justheare.paperjjk_client.mixin.client;
+
+import net.minecraft.client.gl.PostEffectPass;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Accessor for PostEffectPass's id (see RenderHandles)
+ */
+@Mixin(PostEffectPass.class)
+public interface PostEffectPassAccessor {
+    @Accessor("id")
+    String paperjjk$getId();
+}
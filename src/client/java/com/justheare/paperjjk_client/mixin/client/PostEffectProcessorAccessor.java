@@ -0,0 +1,17 @@
+package com.justheare.paperjjk_client.mixin.client;
+
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectProcessor;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.List;
+
+/**
+ * Accessor for PostEffectProcessor's pass list (see RenderHandles)
+ */
+@Mixin(PostEffectProcessor.class)
+public interface PostEffectProcessorAccessor {
+    @Accessor("passes")
+    List<PostEffectPass> paperjjk$getPasses();
+}
@@ -1,14 +1,17 @@
 package com.justheare.paperjjk_client.mixin.client;
 
 import com.justheare.paperjjk_client.shader.RefractionEffectManager;
+import com.justheare.paperjjk_client.util.RenderHandles;
 import com.justheare.paperjjk_client.util.WorldToScreenUtil;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.PostEffectPass;
 import net.minecraft.client.gl.PostEffectProcessor;
 import net.minecraft.client.render.Camera;
 import net.minecraft.client.render.FrameGraphBuilder;
 import net.minecraft.util.math.Vec3d;
 import org.joml.Matrix4f;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -26,13 +29,20 @@ public class PostEffectProcessorMixin {
     private static long lastReloadTime = 0;
     private static final long RELOAD_INTERVAL_MS = 50; // Reload every 50ms (20 times per second)
 
+    // Resolved once per processor instance (a reload creates new processors)
+    @Unique
+    private Boolean paperjjk$isRefraction;
+
     @Inject(method = "render", at = @At("HEAD"))
     private void onRender(FrameGraphBuilder frameGraphBuilder, int width, int height,
                          PostEffectProcessor.FramebufferSet framebufferSet, CallbackInfo ci) {
         PostEffectProcessor processor = (PostEffectProcessor) (Object) this;
 
         // Check if this is the refraction shader
-        boolean isRefractionShader = isRefractionShader(processor);
+        if (paperjjk$isRefraction == null) {
+            paperjjk$isRefraction = isRefractionShader(processor);
+        }
+        boolean isRefractionShader = paperjjk$isRefraction;
 
         // Inspect refraction shader structure once
         if (isRefractionShader && !refractionInspected) {
@@ -46,22 +56,12 @@ public class PostEffectProcessorMixin {
     }
 
     private boolean isRefractionShader(PostEffectProcessor processor) {
-        try {
-            Field passesField = processor.getClass().getDeclaredField("passes");
-            passesField.setAccessible(true);
-            List<?> passes = (List<?>) passesField.get(processor);
-
-            if (!passes.isEmpty()) {
-                Object firstPass = passes.get(0);
-                Field idField = firstPass.getClass().getDeclaredField("id");
-                idField.setAccessible(true);
-                String passId = (String) idField.get(firstPass);
-
-                // Check if any pass contains "refraction"
-                return passId != null && passId.contains("refraction");
-            }
-        } catch (Exception e) {
-            // Ignore
+        List<PostEffectPass> passes = RenderHandles.getPasses(processor);
+        if (!passes.isEmpty()) {
+            String passId = RenderHandles.getPassId(passes.get(0));
+
+            // Check if any pass contains "refraction"
+            return passId != null && passId.contains("refraction");
         }
         return false;
     }
@@ -70,25 +70,18 @@ public class PostEffectProcessorMixin {
         System.out.println("[PostEffectProcessorMixin] === Inspecting PostEffectProcessor instance ===");
 
         try {
-            // Get passes field
-            Field passesField = processor.getClass().getDeclaredField("passes");
-            passesField.setAccessible(true);
-            List<?> passes = (List<?>) passesField.get(processor);
+            List<PostEffectPass> passes = RenderHandles.getPasses(processor);
 
             System.out.println("[PostEffectProcessorMixin] Found " + passes.size() + " passes");
 
             // Inspect ALL passes to find RefractionConfig
             for (int i = 0; i < passes.size(); i++) {
-                Object pass = passes.get(i);
-
-                // Get pass ID
-                Field idField = pass.getClass().getDeclaredField("id");
-                idField.setAccessible(true);
-                String passId = (String) idField.get(pass);
+                PostEffectPass pass = passes.get(i);
+                String passId = RenderHandles.getPassId(pass);
 
                 System.out.println("[PostEffectProcessorMixin] Pass " + i + ": " + passId);
 
-                // Get uniformBuffers from pass
+                // Get uniformBuffers from pass (debug dump only, runs once)
                 Field uniformBuffersField = pass.getClass().getDeclaredField("uniformBuffers");
                 uniformBuffersField.setAccessible(true);
                 Object uniformBuffers = uniformBuffersField.get(pass);
@@ -0,0 +1,47 @@
+package com.justheare.paperjjk_client.mixin.client;
+
+import com.justheare.paperjjk_client.render.JJKFrameGraph;
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import com.llamalad7.mixinextras.sugar.Local;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.render.DefaultFramebufferSet;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.render.WorldRenderer;
+import org.joml.Matrix4f;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to WorldRenderer: captures the frame's world matrices for the raw GL passes
+ * and adds the JJK passes to the world frame graph
+ */
+@Mixin(WorldRenderer.class)
+public class WorldRendererMixin {
+    @Shadow
+    @Final
+    private DefaultFramebufferSet framebufferSet;
+
+    /**
+     * The exact matrices GameRenderer.renderWorld built for this frame
+     * (first Matrix4f argument: camera rotation, second: projection with bobbing and dynamic FOV)
+     */
+    @Inject(method = "render", at = @At("HEAD"))
+    private void paperjjk$captureMatrices(CallbackInfo ci,
+                                          @Local(argsOnly = true) Camera camera,
+                                          @Local(argsOnly = true, ordinal = 0) Matrix4f positionMatrix,
+                                          @Local(argsOnly = true, ordinal = 1) Matrix4f projectionMatrix) {
+        CameraMatrices.update(camera, positionMatrix, projectionMatrix);
+    }
+
+    /**
+     * Injects right before the graph runs, so every vanilla pass is already declared
+     */
+    @Inject(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/render/FrameGraphBuilder;run"))
+    private void paperjjk$addFramePasses(CallbackInfo ci, @Local FrameGraphBuilder frameGraphBuilder) {
+        JJKFrameGraph.addPasses(frameGraphBuilder, framebufferSet);
+    }
+}
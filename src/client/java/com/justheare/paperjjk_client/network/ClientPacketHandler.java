@@ -107,12 +107,10 @@ public class ClientPacketHandler {
                     domain.center = new net.minecraft.util.math.Vec3d(centerX, centerY, centerZ);
                     domain.currentRadius = 0.0f;
                     domain.maxRadius = maxRadius;
-                    domain.expansionSpeed = expansionSpeed;  // Initial speed from server
+                    domain.expansionSpeed = expansionSpeed;  // Dead-reckoning speed until SYNCs arrive
                     domain.color = colorRGB;
                     domain.domainType = domainType;
-                    domain.lastSyncTime = System.currentTimeMillis();
-                    domain.serverRadius = 0.0f;  // Server starts at 0
-                    domain.isExpanding = true;
+                    domain.addSample(System.nanoTime(), 0.0f);  // Server starts at 0
 
                     ClientGameData.addDomain(domainId, domain);
                     LOGGER.info("[Domain Visual] START: id={}, center=({},{},{}), maxRadius={}, speed={}/s",
@@ -154,10 +152,9 @@ public class ClientPacketHandler {
         CEUpdatePacket packet = CEUpdatePacket.read(buf);
 
         client.execute(() -> {
-            ClientGameData.setCE(packet.getCurrentCE(), packet.getMaxCE());
-            ClientGameData.setRegenRate(packet.getRegenRate());
-            ClientGameData.setTechnique(packet.getTechnique());
-            ClientGameData.setBlocked(packet.isBlocked());
+            // Duplicate updates are dropped inside ClientGameData (no version bump)
+            ClientGameData.applyCEUpdate(packet.getCurrentCE(), packet.getMaxCE(),
+                packet.getRegenRate(), packet.getTechnique(), packet.isBlocked());
 
             LOGGER.debug("CE update: {}/{} (regen: {}/s, technique: {}, blocked: {})",
                 packet.getCurrentCE(), packet.getMaxCE(), packet.getRegenRate(),
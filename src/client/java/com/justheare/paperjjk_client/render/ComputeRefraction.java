@@ -0,0 +1,153 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL42;
+import org.lwjgl.opengl.GL43;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * GL 4.3 compute backend for CustomPostProcessing (full-resolution tier)
+ *
+ * Each effect region is dispatched in 16x16 tiles; invocations outside every effect
+ * return without writing, the rest imageStore the distorted color straight into the main
+ * color attachment. No rasterization, no full-screen triangle per region. Effect math and
+ * compositing are the same GLSL as the fragment path, which stays the fallback.
+ *
+ * Selection: -Dpaperjjk.refractionBackend=auto|compute|fragment (default auto, which uses
+ * compute when the context is 4.3+). Forcing either path lets CI exercise both on Mesa's
+ * software rasterizer; the client game test (RefractionBackendGameTest) switches between
+ * them at runtime with setEnabled() and compares the two outputs pixel by pixel.
+ */
+class ComputeRefraction {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-ComputeRefraction");
+
+    private static final int TILE_SIZE = 16; // Must match local_size in the compute shader
+
+    private static PostProcessingShader shader;
+    private static boolean failed = false;
+    private static boolean enabled = true;
+
+    /**
+     * True if the compute backend is selected and its program is linked
+     * Never blocks: while the warm-up link is still running the fragment path is used
+     */
+    static boolean isAvailable() {
+        if (!enabled || failed || shader == null) return false;
+        if (shader.isFailed()) {
+            LOGGER.error("Compute refraction failed to build, using fragment path");
+            failed = true;
+            return false;
+        }
+        return shader.isReady();
+    }
+
+    /**
+     * Turn the compute path off (fragment path used) or back on without rebuilding anything
+     */
+    static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Issue the compute program build (warm-up, via CustomPostProcessing.init)
+     */
+    static void init() {
+        if (shader != null || failed) return;
+
+        String backend = System.getProperty("paperjjk.refractionBackend", "auto").toLowerCase(Locale.ROOT);
+        GLCapabilities caps = GL.getCapabilities();
+
+        if (backend.equals("fragment")) {
+            failed = true;
+            return;
+        }
+        if (!caps.OpenGL43) {
+            if (backend.equals("compute")) {
+                LOGGER.warn("Compute refraction forced but the context has no GL 4.3, using fragment path");
+            }
+            failed = true;
+            return;
+        }
+
+        String source = "#version 430 core\n\nlayout(local_size_x = 16, local_size_y = 16) in;\n\n"
+            + CustomPostProcessing.EFFECT_FIELD + CustomPostProcessing.COMPOSITE + """
+
+            layout(rgba8) writeonly uniform image2D uTarget;
+            uniform ivec4 uRegion;   // x0, y0, x1, y1 (pixels)
+            uniform ivec2 uFullSize;
+
+            void main() {
+                ivec2 pixel = uRegion.xy + ivec2(gl_GlobalInvocationID.xy);
+                if (any(greaterThanEqual(pixel, uRegion.zw))) {
+                    return;
+                }
+
+                vec2 texCoord = (vec2(pixel) + 0.5) / vec2(uFullSize);
+                float pixelDepth = texelFetch(uDepthTexture, pixel, 0).r;
+                vec3 field = evaluateEffects(texCoord, pixelDepth);
+
+                // Outside every effect: leave the framebuffer pixel untouched
+                if (field == vec3(0.0)) {
+                    return;
+                }
+
+                imageStore(uTarget, pixel, composite(texCoord, field.xy, field.z));
+            }
+            """;
+
+        shader = PostProcessingShader.compute(source);
+        shader.compileAsync();
+        LOGGER.info("Issued compute refraction backend build");
+    }
+
+    /**
+     * Dispatch every region, writing into the main color texture in place
+     * Expects the snapshot on unit 0 and depth on unit 5 (as bound by CustomPostProcessing)
+     */
+    static void render(int count, float[] effectData, float[] effectDepths, int[] regions, int regionCount,
+                       int width, int height, float uvScaleX, float uvScaleY, int colorTexture) {
+        shader.use();
+        GL20.glUniform1i(shader.getUniformLocation("uEffectCount"), count);
+        GL20.glUniform4fv(shader.getUniformLocation("uEffects"), effectData);
+        GL20.glUniform1fv(shader.getUniformLocation("uEffectDepth"), effectDepths);
+        GL20.glUniform1f(shader.getUniformLocation("uAspectRatio"), (float) width / (float) height);
+        GL20.glUniform1i(shader.getUniformLocation("uDepthTexture"), 5);
+        GL20.glUniform1i(shader.getUniformLocation("uTexture"), 0);
+        GL20.glUniform2f(shader.getUniformLocation("uUvScale"), uvScaleX, uvScaleY);
+        GL20.glUniform1i(shader.getUniformLocation("uTarget"), 0);
+        GL20.glUniform2i(shader.getUniformLocation("uFullSize"), width, height);
+        int uRegion = shader.getUniformLocation("uRegion");
+
+        GL42.glBindImageTexture(0, colorTexture, 0, false, 0, GL42.GL_WRITE_ONLY, GL11.GL_RGBA8);
+
+        for (int i = 0; i < regionCount; i++) {
+            int base = i * 4;
+            int regionWidth = regions[base + 2] - regions[base];
+            int regionHeight = regions[base + 3] - regions[base + 1];
+            GL20.glUniform4i(uRegion, regions[base], regions[base + 1], regions[base + 2], regions[base + 3]);
+            GL43.glDispatchCompute((regionWidth + TILE_SIZE - 1) / TILE_SIZE, (regionHeight + TILE_SIZE - 1) / TILE_SIZE, 1);
+        }
+
+        // Later draws and samplers must see the stores
+        GL42.glMemoryBarrier(GL42.GL_FRAMEBUFFER_BARRIER_BIT | GL42.GL_TEXTURE_FETCH_BARRIER_BIT);
+        GL42.glBindImageTexture(0, 0, 0, false, 0, GL42.GL_WRITE_ONLY, GL11.GL_RGBA8);
+    }
+
+    /**
+     * Cleanup resources
+     */
+    static void cleanup() {
+        if (shader != null) {
+            shader.delete();
+            shader = null;
+        }
+        failed = false;
+    }
+}
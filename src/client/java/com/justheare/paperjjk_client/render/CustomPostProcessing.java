@@ -1,50 +1,155 @@
 package com.justheare.paperjjk_client.render;
 
+import com.justheare.paperjjk_client.compat.IrisCompat;
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.GlState;
+import com.justheare.paperjjk_client.util.RenderHandles;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.Framebuffer;
-import net.minecraft.client.gl.SimpleFramebuffer;
 import org.lwjgl.opengl.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Custom post-processing pipeline that allows dynamic uniform updates
  * Bypasses Minecraft's immutable uniform buffer system
  */
 public class CustomPostProcessing {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-PostProcessing");
+
+    private static PostProcessingShader mainShader;
     private static int shaderProgram = -1;
-    private static int vertexShader = -1;
-    private static int fragmentShader = -1;
     private static int vao = -1;
 
     // Uniform locations
-    private static int uEffectCenter = -1;
-    private static int uEffectRadius = -1;
-    private static int uEffectStrength = -1;
+    private static int uEffectCount = -1;
+    private static int uEffects = -1;
     private static int uTexture = -1;
     private static int uDepthTexture = -1;  // Step 1: Add depth texture uniform location
     private static int uEffectDepth = -1;   // Step 5: Effect depth uniform for occlusion testing
     private static int uAspectRatio = -1;
+    private static int uUvScale = -1;
+
+    // Effects queued for this frame, applied together in one pass
+    public static final int MAX_EFFECTS = 16; // Must match MAX_EFFECTS in the fragment shader
+    private static final float[] effectData = new float[MAX_EFFECTS * 4];   // center.xy, radius, strength
+    private static final float[] effectDepths = new float[MAX_EFFECTS];
+    private static int effectCount = 0;
+    private static int effectLimit = MAX_EFFECTS; // Lowered by FrameBudgetController
+
+    // Pixel rectangles the queued effects can touch (x0, y0, x1, y1), merged where they overlap
+    private static final int[] regions = new int[MAX_EFFECTS * 4];
+    private static final float[] regionReach = new float[MAX_EFFECTS]; // Max sample offset (uv) inside a region
 
-    // Temporary FBO and textures for post-processing
-    // We need TWO textures: one for reading (source), one for writing (destination)
-    private static int tempFbo = -1;
-    private static int sourceTexture = -1;  // Texture we read from (contains original frame)
-    private static int destTexture = -1;    // Texture we write to (contains distorted result)
-    private static int copiedDepthTexture = -1;  // Step 2: Copied depth texture (GL_DEPTH_COMPONENT32)
-    private static int tempWidth = -1;
-    private static int tempHeight = -1;
 
     private static boolean initialized = false;
 
+    // Reduced-resolution path (RenderQuality below HIGH): field pass + depth-aware upsample
+    private static PostProcessingShader fieldShader;
+    private static PostProcessingShader upsampleShader;
+    private static boolean reducedFailed = false;
+
+    private static final String VERTEX_SOURCE = """
+        #version 330 core
+
+        out vec2 texCoord;
+
+        void main() {
+            vec2 uv = vec2((gl_VertexID << 1) & 2, gl_VertexID & 2);
+            gl_Position = vec4(uv * 2.0 - 1.0, 0.0, 1.0);
+            texCoord = uv;
+        }
+        """;
+
+    // Displacement and bloom of every queued effect (shared by the fragment, reduced and compute paths)
+    static final String EFFECT_FIELD = """
+        #define MAX_EFFECTS 16
+
+        uniform sampler2D uDepthTexture;  // Step 1: Add depth texture uniform
+        uniform int uEffectCount;
+        uniform vec4 uEffects[MAX_EFFECTS];       // center.xy, radius, strength
+        uniform float uEffectDepth[MAX_EFFECTS];  // Step 5: Effect depth for occlusion testing
+        uniform float uAspectRatio;
+
+        // Summed lens offset (xy) and bloom intensity (z) at texCoord
+        vec3 evaluateEffects(vec2 texCoord, float pixelDepth) {
+            // Apply aspect ratio correction to make circular effects actually circular
+            vec2 aspectCorrectedTexCoord = vec2(texCoord.x * uAspectRatio, texCoord.y);
+
+            // Default: sample from current position (no distortion)
+            vec2 offset = vec2(0.0);
+            float bloom = 0.0;
+
+            for (int i = 0; i < uEffectCount; i++) {
+                // Step 6: If pixel depth < effect depth, geometry is in front (occlusion)
+                // Small epsilon for depth comparison to avoid precision issues
+                if (pixelDepth < uEffectDepth[i] - 0.0001) {
+                    continue;
+                }
+
+                float radius = uEffects[i].z;
+                float strength = uEffects[i].w;
+
+                // Flip only the effect center Y coordinate (screen space to texture space)
+                vec2 flippedCenter = vec2(uEffects[i].x, 1.0 - uEffects[i].y);
+                vec2 aspectCorrectedCenter = vec2(flippedCenter.x * uAspectRatio, flippedCenter.y);
+
+                // Calculate vector from current pixel to effect center (with aspect ratio correction)
+                vec2 toCenter = aspectCorrectedTexCoord - aspectCorrectedCenter;
+                float dist = length(toCenter);
+                if (dist >= radius) {
+                    continue;
+                }
+
+                // Normalize distance (0.0 at center, 1.0 at edge)
+                float normalizedDist = dist / radius;
+
+                // Apply gravitational lens distortion
+                if (dist > 0.0001) {
+                    // Smooth falloff from center to edge
+                    float falloff = 1.0 - smoothstep(0.0, 1.0, normalizedDist);
+
+                    // Distortion amount (stronger at center, weaker at edge)
+                    // Gravitational lensing pulls pixels TOWARD the center
+                    offset += toCenter * (strength * falloff / dist);
+                }
+
+                // Blue bloom intensity (tinted in composite())
+                bloom += exp(-normalizedDist * 4.0) * 5.0;
+            }
+
+            return vec3(offset, bloom);
+        }
+        """;
+
+    // Final color from the snapshot (shared by the full-resolution, upsample and compute passes)
+    static final String COMPOSITE = """
+        uniform sampler2D uTexture;
+        uniform vec2 uUvScale;  // Pooled source texture may be larger than the screen
+
+        vec4 composite(vec2 texCoord, vec2 offset, float bloom) {
+            // Sample the texture at the (possibly distorted) coordinates
+            vec2 maxUv = uUvScale - 0.5 / vec2(textureSize(uTexture, 0));
+            vec2 sampleCoord = min(clamp(texCoord + offset, 0.0, 1.0) * uUvScale, maxUv);
+            vec4 color = textureLod(uTexture, sampleCoord, 0.0);  // Explicit LOD: also used from compute
+            color.rgb += vec3(0.2, 0.6, 1.0) * bloom;
+            return color;
+        }
+        """;
+
     /**
-     * Initialize the custom post-processing system
+     * Initialize the custom post-processing system (ShaderWarmup stage)
+     * Issues every refraction program; render() skips the pass until the main one is linked
      */
     public static void init() {
         if (initialized) return;
 
         try {
-            // Compile shaders
+            // Issue shader builds (linked in the background during the loading screen)
             compileShaders();
+            initReduced();
+            ComputeRefraction.init();
 
             // Create VAO for full-screen quad
             vao = GL30.glGenVertexArrays();
@@ -57,483 +162,222 @@ public class CustomPostProcessing {
     }
 
     /**
-     * Compile vertex and fragment shaders
+     * Issue the vertex and fragment shader build
      */
     private static void compileShaders() {
         // Vertex shader (simple full-screen quad)
-        String vertexSource = """
-            #version 330 core
-
-            out vec2 texCoord;
-
-            void main() {
-                vec2 uv = vec2((gl_VertexID << 1) & 2, gl_VertexID & 2);
-                gl_Position = vec4(uv * 2.0 - 1.0, 0.0, 1.0);
-                texCoord = uv;
-            }
-            """;
+        String vertexSource = VERTEX_SOURCE;
 
-        // Fragment shader (Gravitational lens / refraction effect)
-        String fragmentSource = """
-            #version 330 core
-
-            uniform sampler2D uTexture;
-            uniform sampler2D uDepthTexture;  // Step 1: Add depth texture uniform
-            uniform vec2 uEffectCenter;
-            uniform float uEffectRadius;
-            uniform float uEffectStrength;
-            uniform float uEffectDepth;       // Step 5: Effect depth for occlusion testing
-            uniform float uAspectRatio;
+        // Fragment shader (Gravitational lens / refraction effect, all effects in one pass)
+        String fragmentSource = "#version 330 core\n\n" + EFFECT_FIELD + COMPOSITE + """
 
             in vec2 texCoord;
             out vec4 fragColor;
 
             void main() {
-                // Flip only the effect center Y coordinate (screen space to texture space)
-                vec2 flippedCenter = vec2(uEffectCenter.x, 1.0 - uEffectCenter.y);
-
-                // Apply aspect ratio correction to make circular effects actually circular
-                vec2 aspectCorrectedTexCoord = vec2(texCoord.x * uAspectRatio, texCoord.y);
-                vec2 aspectCorrectedCenter = vec2(flippedCenter.x * uAspectRatio, flippedCenter.y);
-
-                // Calculate vector from current pixel to effect center (with aspect ratio correction)
-                vec2 toCenter = aspectCorrectedTexCoord - aspectCorrectedCenter;
-                float dist = length(toCenter);
-
-                // Default: sample from current position (no distortion)
-                vec2 sampleCoord = texCoord;
-
-                // Apply gravitational lens distortion if within radius
-                if (dist < uEffectRadius && dist > 0.0001) {
-                    // Normalize distance (0.0 at center, 1.0 at edge)
-                    float normalizedDist = dist / uEffectRadius;
-
-                    // Smooth falloff from center to edge
-                    float falloff = 1.0 - smoothstep(0.0, 1.0, normalizedDist);
-
-                    // Calculate distortion amount (stronger at center, weaker at edge)
-                    // Gravitational lensing pulls pixels TOWARD the center
-                    float distortAmount = uEffectStrength * falloff / dist;
-
-                    // Apply distortion: move sample point toward center
-                    // This creates the "magnifying" effect of gravitational lensing
-                    sampleCoord = texCoord + toCenter * distortAmount;
-
-                    // Clamp to valid texture coordinates
-                    sampleCoord = clamp(sampleCoord, 0.0, 1.0);
-                }
-
-                // Step 6: Occlusion test - check if effect is behind geometry
-                // Sample depth at current pixel
                 float pixelDepth = texture(uDepthTexture, texCoord).r;
+                vec3 field = evaluateEffects(texCoord, pixelDepth);
 
-                // If pixel depth < effect depth, geometry is in front (occlusion)
-                // Small epsilon for depth comparison to avoid precision issues
-                if (pixelDepth < uEffectDepth - 0.0001) {
-                    // Effect is occluded, skip distortion and bloom
-                    fragColor = texture(uTexture, texCoord);
-                    return;
-                }
-
-                // Sample the texture at the (possibly distorted) coordinates
-                // Note: sampleCoord is already in flipped OpenGL space, so we can use it directly
-                vec4 color = texture(uTexture, sampleCoord);
-
-                // Blue bloom effect
-                if (dist < uEffectRadius) {
-                    float normalizedDist = dist / uEffectRadius;
-                    vec3 bloomColor = vec3(0.2, 0.6, 1.0);
-                    float bloomFactor = exp(-normalizedDist * 4.0) * 5.0;
-                    color.rgb += bloomColor * bloomFactor;
+                // Outside every effect: leave the framebuffer pixel untouched
+                if (field == vec3(0.0)) {
+                    discard;
                 }
 
-                fragColor = color;
+                fragColor = composite(texCoord, field.xy, field.z);
             }
             """;
 
-        // Compile vertex shader
-        vertexShader = GL20.glCreateShader(GL20.GL_VERTEX_SHADER);
-        GL20.glShaderSource(vertexShader, vertexSource);
-        GL20.glCompileShader(vertexShader);
-
-        if (GL20.glGetShaderi(vertexShader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
-            // System.err.println("[CustomPostProcessing] Vertex shader compilation failed:");
-            System.err.println(GL20.glGetShaderInfoLog(vertexShader));
-            return;
-        }
-
-        // Compile fragment shader
-        fragmentShader = GL20.glCreateShader(GL20.GL_FRAGMENT_SHADER);
-        GL20.glShaderSource(fragmentShader, fragmentSource);
-        GL20.glCompileShader(fragmentShader);
-
-        if (GL20.glGetShaderi(fragmentShader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
-            // System.err.println("[CustomPostProcessing] Fragment shader compilation failed:");
-            System.err.println(GL20.glGetShaderInfoLog(fragmentShader));
-            return;
-        }
+        // Compile and link (or load the cached binary) without waiting for the driver
+        mainShader = new PostProcessingShader(vertexSource, fragmentSource);
+        mainShader.compileAsync();
+    }
 
-        // Link program
-        shaderProgram = GL20.glCreateProgram();
-        GL20.glAttachShader(shaderProgram, vertexShader);
-        GL20.glAttachShader(shaderProgram, fragmentShader);
-        GL20.glLinkProgram(shaderProgram);
+    /**
+     * True once the main program is linked; fetches uniform locations the first time
+     */
+    private static boolean isMainReady() {
+        if (shaderProgram != -1) return true;
+        if (!mainShader.isReady()) return false;
 
-        if (GL20.glGetProgrami(shaderProgram, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
-            // System.err.println("[CustomPostProcessing] Shader program linking failed:");
-            System.err.println(GL20.glGetProgramInfoLog(shaderProgram));
-            return;
-        }
+        shaderProgram = mainShader.getProgramId();
 
         // Get uniform locations
         uTexture = GL20.glGetUniformLocation(shaderProgram, "uTexture");
         uDepthTexture = GL20.glGetUniformLocation(shaderProgram, "uDepthTexture");  // Step 1
-        uEffectCenter = GL20.glGetUniformLocation(shaderProgram, "uEffectCenter");
-        uEffectRadius = GL20.glGetUniformLocation(shaderProgram, "uEffectRadius");
-        uEffectStrength = GL20.glGetUniformLocation(shaderProgram, "uEffectStrength");
+        uEffectCount = GL20.glGetUniformLocation(shaderProgram, "uEffectCount");
+        uEffects = GL20.glGetUniformLocation(shaderProgram, "uEffects");
         uEffectDepth = GL20.glGetUniformLocation(shaderProgram, "uEffectDepth");    // Step 5
         uAspectRatio = GL20.glGetUniformLocation(shaderProgram, "uAspectRatio");
+        uUvScale = GL20.glGetUniformLocation(shaderProgram, "uUvScale");
+        return true;
+    }
 
+    /**
+     * Cap the number of effects processed per frame (1..MAX_EFFECTS)
+     * Past the cap, the effects with the smallest projected radius are dropped
+     */
+    static void setEffectLimit(int limit) {
+        effectLimit = Math.max(1, Math.min(MAX_EFFECTS, limit));
     }
 
     /**
-     * Render post-processing effect
-     * Copies framebuffer, applies distortion, and draws back
+     * Queue an effect for this frame's pass
+     * radius is the projected screen radius; when the queue is full the effect replaces the
+     * smallest queued one, or is dropped (returns false) if it is the smallest itself
      */
-    public static void render(float centerX, float centerY, float radius, float strength, float effectDepth) {
-        if (!initialized) {
-            init();
-            if (!initialized) return;
+    public static boolean addEffect(float centerX, float centerY, float radius, float strength, float effectDepth) {
+        int index = effectCount;
+        if (index == MAX_EFFECTS) {
+            index = smallestEffect(MAX_EFFECTS);
+            if (radius * 2.0f <= effectData[index * 4 + 2]) return false;
+        } else {
+            effectCount++;
         }
 
-        try {
-            RenderSystem.assertOnRenderThread();
-            MinecraftClient client = MinecraftClient.getInstance();
-            Framebuffer mainFramebuffer = client.getFramebuffer();
-
-            // In Minecraft 1.21, Framebuffer doesn't store FBO ID directly
-            // Instead, we use the currently bound FBO (set by Minecraft's rendering pipeline)
-            // During HudRenderCallback, the main framebuffer should already be bound
+        int base = index * 4;
+        effectData[base] = centerX;
+        effectData[base + 1] = centerY;
+        effectData[base + 2] = radius * 2.0f;
+        effectData[base + 3] = strength * 6.0f; // 왜곡 강도 3배 증가
+        effectDepths[index] = effectDepth;
+        return true;
+    }
 
-            // First, try to get the color texture's GL ID
-            int mainTextureId = getFramebufferTextureId(mainFramebuffer);
-            if (mainTextureId == -1) {
-                // System.err.println("[CustomPostProcessing] Failed to get main framebuffer texture ID");
-                return;
+    private static int smallestEffect(int count) {
+        int smallest = 0;
+        for (int i = 1; i < count; i++) {
+            if (effectData[i * 4 + 2] < effectData[smallest * 4 + 2]) {
+                smallest = i;
             }
+        }
+        return smallest;
+    }
 
-            // Step 2: Get depth texture ID - prioritize Iris depthtex2 (world depth without hand)
-            int depthTextureId = getIrisWorldDepthTexture();
-            if (depthTextureId == -1) {
-                // Fallback to Minecraft's default depth texture
-                // System.out.println("[CustomPostProcessing] Step 2: Iris depth unavailable, using Minecraft framebuffer depth");
-                depthTextureId = getFramebufferDepthTextureId(mainFramebuffer);
+    /**
+     * Apply the effect limit: drop the smallest projected effects until count fits
+     * (the largest ones are the most visible and cover the most screen)
+     */
+    private static int applyEffectLimit(int count) {
+        while (count > effectLimit) {
+            int smallest = smallestEffect(count);
+            int last = count - 1;
+            if (smallest != last) {
+                System.arraycopy(effectData, last * 4, effectData, smallest * 4, 4);
+                effectDepths[smallest] = effectDepths[last];
             }
+            count--;
+        }
+        return count;
+    }
 
-            if (depthTextureId == -1) {
-                // System.err.println("[CustomPostProcessing] Step 2: WARNING - No depth texture available, occlusion disabled");
-            } else {
-                // Query the depth texture format
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, depthTextureId);
-                int originalFormat = GL11.glGetTexLevelParameteri(GL11.GL_TEXTURE_2D, 0, GL11.GL_TEXTURE_INTERNAL_FORMAT);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+    public static boolean hasQueuedEffects() {
+        return effectCount > 0;
+    }
 
-                // System.out.println("[CustomPostProcessing] Step 2: Using depth texture ID: " + depthTextureId + ", Format: 0x" + Integer.toHexString(originalFormat));
-            }
+    /**
+     * Render all queued effects with a snapshot borrowed from RenderTargetPool
+     * Fallback for frames where the frame-graph pass (JJKFrameGraph) didn't consume the queue
+     */
+    public static void render() {
+        render(null);
+    }
 
-            // Get the currently bound FBO - this should be Minecraft's rendering FBO
-            int currentFbo = GL11.glGetInteger(GL30.GL_FRAMEBUFFER_BINDING);
+    /**
+     * Render all queued effects in one pass and clear the queue
+     * Only the pixels inside each effect's projected rectangle are copied and redrawn
+     * snapshot: screen-sized transient target from the frame graph, or null to use the pool
+     */
+    public static void render(Framebuffer snapshot) {
+        int count = applyEffectLimit(effectCount);
+        effectCount = 0;
+        if (count == 0) return;
 
-            // If it's FBO 0 (default framebuffer), we need a different approach
-            // Try to bind the colorAttachment's parent FBO by querying it
-            if (currentFbo == 0) {
-                // Bind the texture and check what FBO it belongs to
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, mainTextureId);
+        // Not warmed up yet, or still linking: skip the pass rather than compile mid-frame
+        if (!initialized || !isMainReady()) return;
 
-                // Query which FBO this texture is attached to (this is hacky but might work)
-                // Actually, we can't query this directly. Let's create our own FBO for the main texture
-                //// System.out.println("[CustomPostProcessing] Current FBO is 0, creating wrapper FBO for main texture");
+        try {
+            RenderSystem.assertOnRenderThread();
+            MinecraftClient client = MinecraftClient.getInstance();
+            Framebuffer mainFramebuffer = client.getFramebuffer();
 
-                // We'll use a different strategy: don't copy FROM mainFbo, just render to it
-                currentFbo = 0; // Keep as 0, we'll handle this specially
+            // Step 2: Get depth texture ID - prioritize Iris depthtex2 (world depth without hand)
+            int depthTextureId = IrisCompat.getWorldDepthTexture();
+            if (depthTextureId == -1) {
+                // Fallback to Minecraft's default depth texture
+                depthTextureId = RenderHandles.getDepthTextureId(mainFramebuffer);
             }
 
-            int mainFbo = currentFbo;
-            /*// System.out.println("[CustomPostProcessing] Current FBO binding: " + mainFbo +
-                ", Main texture ID: " + mainTextureId +
-                " (size: " + mainFramebuffer.textureWidth + "x" + mainFramebuffer.textureHeight + ")");*/
+            // Color-only wrapper around the main framebuffer: the depth texture is sampled below
+            if (!MainFramebufferTarget.bind(false)) return;
 
-            // Create or resize temp framebuffer if needed
-            if (tempFbo == -1 ||
-                tempWidth != mainFramebuffer.textureWidth ||
-                tempHeight != mainFramebuffer.textureHeight) {
+            int width = mainFramebuffer.textureWidth;
+            int height = mainFramebuffer.textureHeight;
 
-                // Save current FBO binding
-                int savedFbo = mainFbo;
-
-                // Delete old resources
-                if (tempFbo != -1) {
-                    GL30.glDeleteFramebuffers(tempFbo);
-                }
-                if (sourceTexture != -1) {
-                    GL11.glDeleteTextures(sourceTexture);
-                }
-                if (destTexture != -1) {
-                    GL11.glDeleteTextures(destTexture);
-                }
-                if (copiedDepthTexture != -1) {
-                    GL11.glDeleteTextures(copiedDepthTexture);
-                }
-
-                // Create source texture (will hold copy of main framebuffer)
-                sourceTexture = GL11.glGenTextures();
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, sourceTexture);
-                GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8,
-                    mainFramebuffer.textureWidth, mainFramebuffer.textureHeight,
-                    0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (java.nio.ByteBuffer) null);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-
-                // Create destination texture (will hold distorted result)
-                destTexture = GL11.glGenTextures();
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, destTexture);
-                GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8,
-                    mainFramebuffer.textureWidth, mainFramebuffer.textureHeight,
-                    0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (java.nio.ByteBuffer) null);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-
-                // Step 2: Create copied depth texture with GL_DEPTH_COMPONENT32F (0x81a7)
-                // CRITICAL: Must ensure active texture unit is 0 before creating textures
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                copiedDepthTexture = GL11.glGenTextures();
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, copiedDepthTexture);
-                // Use 0x81a7 (GL_DEPTH_COMPONENT32F) - confirmed from runtime query
-                GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, 0x81a7,
-                    mainFramebuffer.textureWidth, mainFramebuffer.textureHeight,
-                    0, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT, (java.nio.ByteBuffer) null);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-                // CRITICAL: Disable depth comparison mode for shader sampling
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL14.GL_TEXTURE_COMPARE_MODE, GL11.GL_NONE);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-                // System.out.println("[CustomPostProcessing] Step 2: Created copied depth texture (0x81a7)");
-
-                // Create FBO and attach destination texture
-                tempFbo = GL30.glGenFramebuffers();
-                GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, tempFbo);
-                GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
-                    GL11.GL_TEXTURE_2D, destTexture, 0);
-
-                int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
-                if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
-                    // System.err.println("[CustomPostProcessing] Framebuffer incomplete: " + status);
-                    GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, savedFbo);
-                    return;
-                }
-
-                // Restore previous FBO binding
-                GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, savedFbo);
-
-                tempWidth = mainFramebuffer.textureWidth;
-                tempHeight = mainFramebuffer.textureHeight;
-            }
-
-
-            // CRITICAL: If tempFbo and mainFbo are the same, we can't proceed!
-            if (tempFbo == mainFbo && mainFbo != 0) {
-                // System.err.println("[CustomPostProcessing] ERROR: tempFbo == mainFbo (" + tempFbo + "), cannot render to same framebuffer!");
+            int regionCount = buildRegions(count, width, height);
+            if (regionCount == 0) {
+                GlState.bindFramebuffer(0);
                 return;
             }
 
-            // STEP 2: Copy main texture to our source texture
-            // Strategy depends on whether mainFbo is 0 or not
-            if (mainFbo == 0) {
-                // FBO 0: We can't use glCopyTexSubImage2D from it
-                // Instead, we'll use glBlitFramebuffer or texture-to-texture copy
-                // Create a temporary FBO to hold mainTextureId so we can blit from it
-                int tempReadFbo = GL30.glGenFramebuffers();
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, tempReadFbo);
-                GL30.glFramebufferTexture2D(GL30.GL_READ_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
-                    GL11.GL_TEXTURE_2D, mainTextureId, 0);
-
-                // Attach sourceTexture to a write FBO
-                int tempWriteFbo = GL30.glGenFramebuffers();
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, tempWriteFbo);
-                GL30.glFramebufferTexture2D(GL30.GL_DRAW_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
-                    GL11.GL_TEXTURE_2D, sourceTexture, 0);
-
-                // Blit from mainTexture to sourceTexture
-                GL30.glBlitFramebuffer(0, 0, tempWidth, tempHeight,
-                    0, 0, tempWidth, tempHeight,
-                    GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST);
-
-                // Cleanup temp FBOs and restore framebuffer state
-                GL30.glDeleteFramebuffers(tempReadFbo);
-                GL30.glDeleteFramebuffers(tempWriteFbo);
-                // Unbind read/draw framebuffers to clean state
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, 0);
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
-
-                // Step 2: Copy depth texture data (if available)
-                if (depthTextureId != -1 && copiedDepthTexture != -1) {
-                    int tempDepthReadFbo = GL30.glGenFramebuffers();
-                    int tempDepthWriteFbo = GL30.glGenFramebuffers();
-
-                    // Attach source depth texture to read FBO
-                    GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, tempDepthReadFbo);
-                    GL30.glFramebufferTexture2D(GL30.GL_READ_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT,
-                        GL11.GL_TEXTURE_2D, depthTextureId, 0);
-
-                    // Check read FBO status
-                    int readStatus = GL30.glCheckFramebufferStatus(GL30.GL_READ_FRAMEBUFFER);
-                    if (readStatus == GL30.GL_FRAMEBUFFER_COMPLETE) {
-                        // Attach copied depth texture to write FBO
-                        GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, tempDepthWriteFbo);
-                        GL30.glFramebufferTexture2D(GL30.GL_DRAW_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT,
-                            GL11.GL_TEXTURE_2D, copiedDepthTexture, 0);
-
-                        // Check write FBO status
-                        int writeStatus = GL30.glCheckFramebufferStatus(GL30.GL_DRAW_FRAMEBUFFER);
-                        if (writeStatus == GL30.GL_FRAMEBUFFER_COMPLETE) {
-                            // Blit depth buffer
-                            GL30.glBlitFramebuffer(0, 0, tempWidth, tempHeight,
-                                0, 0, tempWidth, tempHeight,
-                                GL11.GL_DEPTH_BUFFER_BIT, GL11.GL_NEAREST);
-                            // System.out.println("[CustomPostProcessing] Step 2: Depth data copied successfully");
-                        } else {
-                            // System.err.println("[CustomPostProcessing] Step 2: Write FBO incomplete: " + writeStatus);
-                        }
-                    } else {
-                        // System.err.println("[CustomPostProcessing] Step 2: Read FBO incomplete: " + readStatus);
-                    }
-
-                    // Cleanup and restore state
-                    GL30.glDeleteFramebuffers(tempDepthReadFbo);
-                    GL30.glDeleteFramebuffers(tempDepthWriteFbo);
-                    GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, 0);
-                    GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
-                }
-            } else {
-                // Normal FBO: use glCopyTexSubImage2D
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, mainFbo);
-                // CRITICAL: Ensure we're on texture unit 0 before binding
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, sourceTexture);
-                GL11.glCopyTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, 0, 0, tempWidth, tempHeight);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+            // STEP 2: Snapshot only what the shader can sample: each region grown by its max offset
+            // Texels outside these copies are stale but never read
+            int snapshotTexture = snapshot != null ? RenderHandles.getColorTextureId(snapshot) : -1;
+            RenderTargetPool.Target pooled = null;
+            float uvScaleX = 1.0f;
+            float uvScaleY = 1.0f;
+            if (snapshotTexture == -1) {
+                pooled = RenderTargetPool.acquire(width, height, GL11.GL_RGBA8);
+                snapshotTexture = pooled.texture;
+                uvScaleX = pooled.getUvScaleX();
+                uvScaleY = pooled.getUvScaleY();
             }
 
-            // STEP 3: Render distorted version from sourceTexture to destTexture (via tempFbo)
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, tempFbo);
-            GL11.glViewport(0, 0, tempWidth, tempHeight);
-
-            // Save GL state
-            boolean depthTestEnabled = GL11.glIsEnabled(GL11.GL_DEPTH_TEST);
-            boolean blendEnabled = GL11.glIsEnabled(GL11.GL_BLEND);
-
-            GL11.glDisable(GL11.GL_DEPTH_TEST);
-            GL11.glDisable(GL11.GL_BLEND);
-
+            GpuProfiler.begin(GpuProfiler.Pass.REFRACTION_COPY);
+            GlState.bindTexture(0, snapshotTexture);
+            for (int i = 0; i < regionCount; i++) {
+                int base = i * 4;
+                int padX = (int) Math.ceil(regionReach[i] * width) + 1;
+                int padY = (int) Math.ceil(regionReach[i] * height) + 1;
+                int x0 = Math.max(0, regions[base] - padX);
+                int y0 = Math.max(0, regions[base + 1] - padY);
+                int x1 = Math.min(width, regions[base + 2] + padX);
+                int y1 = Math.min(height, regions[base + 3] + padY);
+                GL11.glCopyTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x0, y0, x0, y0, x1 - x0, y1 - y0);
+            }
+            GpuProfiler.end();
+
+            // STEP 3: Render the distortion from the snapshot directly into the main framebuffer
+            // Pixels outside every effect are discarded, so only the effect regions are written
+            // (state goes through GlState, so nothing needs saving or restoring)
+            GpuProfiler.begin(GpuProfiler.Pass.REFRACTION);
+            GlState.depthTest(false);
+            GlState.blend(false);
             GL30.glBindVertexArray(vao);
-            GL20.glUseProgram(shaderProgram);
-
-            // Bind the source texture (undistorted frame) to unit 0
-            GL13.glActiveTexture(GL13.GL_TEXTURE0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, sourceTexture);
 
             // Step 3: Bind Iris depthtex2 (world depth, no hand) directly to GL_TEXTURE5
+            // Use GL_TEXTURE5 to avoid conflicts with Minecraft's texture units
             if (depthTextureId != -1) {
-                // Use GL_TEXTURE5 to avoid conflicts with Minecraft's texture units
-                GL13.glActiveTexture(GL13.GL_TEXTURE5);
-                // Bind Iris depthtex2 directly (no copy needed - Iris already provides the correct depth)
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, depthTextureId);
-                // CRITICAL: Restore to unit 0 immediately
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                // System.out.println("[CustomPostProcessing] Step 3: Iris depthtex2 (world depth) bound to unit 5");
-            }
-
-            // Calculate aspect ratio (width / height)
-            float aspectRatio = (float) tempWidth / (float) tempHeight;
-
-            // Set uniforms for distortion
-            GL20.glUniform2f(uEffectCenter, centerX, centerY);
-            GL20.glUniform1f(uEffectRadius, radius*2.0f);
-            GL20.glUniform1f(uEffectStrength, strength * 6.0f); // 왜곡 강도 3배 증가
-            GL20.glUniform1f(uEffectDepth, effectDepth);        // Step 5: Pass effect depth
-            GL20.glUniform1f(uAspectRatio, aspectRatio);
-            GL20.glUniform1i(uTexture, 0);
-            // Step 3: Set depth texture uniform to unit 5 (not 1)
-            if (depthTextureId != -1 && copiedDepthTexture != -1) {
-                GL20.glUniform1i(uDepthTexture, 5);
-            }
-
-            // Draw distorted quad to destTexture (attached to tempFbo)
-            GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, 3);
-
-            // CRITICAL: Immediately unbind depth texture from unit 5 BEFORE any other operations
-            if (depthTextureId != -1) {
-                GL13.glActiveTexture(GL13.GL_TEXTURE5);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                // System.out.println("[CustomPostProcessing] Step 3: Immediately unbound depth from unit 5 after draw");
+                GlState.bindTexture(5, depthTextureId);
             }
 
-            // STEP 4: Copy distorted image back to main framebuffer texture
-            if (mainFbo == 0) {
-                // FBO 0: Use blit from destTexture to mainTextureId
-                // Create temp FBO for mainTextureId
-                int tempWriteFbo = GL30.glGenFramebuffers();
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, tempWriteFbo);
-                GL30.glFramebufferTexture2D(GL30.GL_DRAW_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
-                    GL11.GL_TEXTURE_2D, mainTextureId, 0);
-
-                // Read from tempFbo (which has destTexture)
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, tempFbo);
-
-                // Blit
-                GL30.glBlitFramebuffer(0, 0, tempWidth, tempHeight,
-                    0, 0, tempWidth, tempHeight,
-                    GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST);
-
-                // Cleanup and restore framebuffer state
-                GL30.glDeleteFramebuffers(tempWriteFbo);
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, 0);
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+            // The reduced and compute paths need depth (bilateral upsample / texelFetch)
+            int fieldScale = RenderQuality.effective().getDistortionScale();
+            if (fieldScale > 1 && depthTextureId != -1 && isReducedReady()) {
+                renderReduced(count, regionCount, width, height, fieldScale, uvScaleX, uvScaleY);
+            } else if (fieldScale == 1 && depthTextureId != -1 && ComputeRefraction.isAvailable()) {
+                ComputeRefraction.render(count, effectData, effectDepths, regions, regionCount,
+                    width, height, uvScaleX, uvScaleY, RenderHandles.getColorTextureId(mainFramebuffer));
             } else {
-                // Normal FBO: Copy from tempFbo to mainFbo
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, tempFbo);
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, mainFbo);
-
-                // CRITICAL: Ensure we're on texture unit 0 before binding
-                GL13.glActiveTexture(GL13.GL_TEXTURE0);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, mainTextureId);
-                GL11.glCopyTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, 0, 0, tempWidth, tempHeight);
+                renderFull(count, regionCount, width, height, depthTextureId != -1, uvScaleX, uvScaleY);
             }
-
-            // Restore state - unbind all textures properly
-            // Step 3: Unbind depth texture from unit 5 if it was used (double-check)
-            if (depthTextureId != -1) {
-                GL13.glActiveTexture(GL13.GL_TEXTURE5);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-                // System.out.println("[CustomPostProcessing] Step 3: Final unbind depth from unit 5");
+            GpuProfiler.end();
+            if (pooled != null) {
+                RenderTargetPool.release(pooled);
             }
-            // Unbind color texture from unit 0 and ensure we're on unit 0
-            GL13.glActiveTexture(GL13.GL_TEXTURE0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
 
             GL30.glBindVertexArray(0);
             GL20.glUseProgram(0);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, mainFbo);
-
-            // Restore GL state
-            if (depthTestEnabled) GL11.glEnable(GL11.GL_DEPTH_TEST);
-            if (blendEnabled) GL11.glEnable(GL11.GL_BLEND);
+            GlState.bindFramebuffer(0);
 
         } catch (Exception e) {
             //System.err.println("[CustomPostProcessing] Error during render:");
@@ -542,187 +386,272 @@ public class CustomPostProcessing {
     }
 
     /**
-     * Get framebuffer FBO ID via reflection
+     * Evaluate and composite every effect per full-resolution pixel
+     * Expects the main framebuffer bound, the snapshot on unit 0 and depth on unit 5
      */
-    private static int getFramebufferFboId(Framebuffer framebuffer) {
-        try {
-            // Debug: Print all fields to find the correct one
-            // System.out.println("[CustomPostProcessing] Framebuffer fields:");
-            for (java.lang.reflect.Field field : Framebuffer.class.getDeclaredFields()) {
-                System.out.println("  - " + field.getName() + " (" + field.getType().getSimpleName() + ")");
-            }
+    private static void renderFull(int count, int regionCount, int width, int height,
+                                   boolean hasDepth, float uvScaleX, float uvScaleY) {
+        GL20.glUseProgram(shaderProgram);
+
+        // Set uniforms for distortion (every queued effect)
+        GL20.glUniform1i(uEffectCount, count);
+        GL20.glUniform4fv(uEffects, effectData);
+        GL20.glUniform1fv(uEffectDepth, effectDepths);      // Step 5: Pass effect depths
+        GL20.glUniform1f(uAspectRatio, (float) width / (float) height);
+        GL20.glUniform2f(uUvScale, uvScaleX, uvScaleY);
+        GL20.glUniform1i(uTexture, 0);
+        // Step 3: Set depth texture uniform to unit 5 (not 1)
+        if (hasDepth) {
+            GL20.glUniform1i(uDepthTexture, 5);
+        }
 
-            // Try common field names
-            String[] possibleNames = {"fbo", "glId", "id", "framebufferId", "framebuffer"};
-            for (String fieldName : possibleNames) {
-                try {
-                    java.lang.reflect.Field field = Framebuffer.class.getDeclaredField(fieldName);
-                    field.setAccessible(true);
-                    Object value = field.get(framebuffer);
-
-                    // If it's an int, return it directly
-                    if (value instanceof Integer) {
-                        int id = (int) value;
-                        // System.out.println("[CustomPostProcessing] Found FBO ID in field '" + fieldName + "': " + id);
-                        return id;
-                    }
+        drawRegions(regionCount, 1, width, height);
+    }
 
-                    // If it's an object with getGlId(), call it
-                    try {
-                        java.lang.reflect.Method getGlIdMethod = value.getClass().getMethod("getGlId");
-                        int id = (int) getGlIdMethod.invoke(value);
-                        // System.out.println("[CustomPostProcessing] Found FBO ID via " + fieldName + ".getGlId(): " + id);
-                        return id;
-                    } catch (Exception ignored) {}
-                } catch (NoSuchFieldException ignored) {}
-            }
+    /**
+     * Evaluate the effects at 1/fieldScale resolution, then upsample and composite at full resolution
+     * The displacement field is low-frequency, so only depth edges need the full-resolution pass
+     * Expects the main framebuffer bound, the snapshot on unit 0 and depth on unit 5
+     */
+    private static void renderReduced(int count, int regionCount, int width, int height,
+                                      int fieldScale, float uvScaleX, float uvScaleY) {
+        int fieldWidth = (width + fieldScale - 1) / fieldScale;
+        int fieldHeight = (height + fieldScale - 1) / fieldScale;
+        RenderTargetPool.Target field = RenderTargetPool.acquire(fieldWidth, fieldHeight, GL30.GL_RGBA16F);
+
+        // Pass 1: offset.xy + bloom into the reduced field
+        GlState.bindFramebuffer(field.getFbo());
+        GlState.viewport(0, 0, fieldWidth, fieldHeight);
+
+        fieldShader.use();
+        GL20.glUniform1i(fieldShader.getUniformLocation("uEffectCount"), count);
+        GL20.glUniform4fv(fieldShader.getUniformLocation("uEffects"), effectData);
+        GL20.glUniform1fv(fieldShader.getUniformLocation("uEffectDepth"), effectDepths);
+        GL20.glUniform1f(fieldShader.getUniformLocation("uAspectRatio"), (float) width / (float) height);
+        GL20.glUniform1i(fieldShader.getUniformLocation("uDepthTexture"), 5);
+        GL20.glUniform1i(fieldShader.getUniformLocation("uFieldScale"), fieldScale);
+        GL20.glUniform2i(fieldShader.getUniformLocation("uFullSize"), width, height);
+
+        drawRegions(regionCount, fieldScale, fieldWidth, fieldHeight);
+
+        // Pass 2: depth-aware upsample and composite into the main framebuffer
+        MainFramebufferTarget.bind(false);
+        GlState.bindTexture(1, field.texture);
+
+        upsampleShader.use();
+        GL20.glUniform1i(upsampleShader.getUniformLocation("uTexture"), 0);
+        GL20.glUniform2f(upsampleShader.getUniformLocation("uUvScale"), uvScaleX, uvScaleY);
+        GL20.glUniform1i(upsampleShader.getUniformLocation("uField"), 1);
+        GL20.glUniform1i(upsampleShader.getUniformLocation("uDepthTexture"), 5);
+        GL20.glUniform1i(upsampleShader.getUniformLocation("uFieldScale"), fieldScale);
+        GL20.glUniform2i(upsampleShader.getUniformLocation("uFieldSize"), fieldWidth, fieldHeight);
+        GL20.glUniform2i(upsampleShader.getUniformLocation("uFullSize"), width, height);
+
+        drawRegions(regionCount, 1, width, height);
+
+        RenderTargetPool.release(field);
+    }
 
-            // System.err.println("[CustomPostProcessing] Could not find FBO ID in any known field");
-            return -1;
-        } catch (Exception e) {
-            // System.err.println("[CustomPostProcessing] Failed to get FBO ID: " + e.getMessage());
-            e.printStackTrace();
-            return -1;
+    /**
+     * One scissored full-screen draw per region; the rasterizer skips everything outside it
+     * At a reduced scale the rectangles are shrunk and grown by one texel, so the upsample's
+     * neighbours around a region edge hold real (zero) values instead of stale ones
+     */
+    private static void drawRegions(int regionCount, int scale, int targetWidth, int targetHeight) {
+        int pad = scale > 1 ? 1 : 0;
+
+        GlState.scissorTest(true);
+        for (int i = 0; i < regionCount; i++) {
+            int base = i * 4;
+            int x0 = Math.max(0, regions[base] / scale - pad);
+            int y0 = Math.max(0, regions[base + 1] / scale - pad);
+            int x1 = Math.min(targetWidth, (regions[base + 2] + scale - 1) / scale + pad);
+            int y1 = Math.min(targetHeight, (regions[base + 3] + scale - 1) / scale + pad);
+            GlState.scissorBox(x0, y0, x1 - x0, y1 - y0);
+            GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, 3);
         }
+        GlState.scissorTest(false);
     }
 
     /**
-     * Get framebuffer depth texture ID via reflection
+     * Issue the reduced-resolution programs (every tier is warmed up, quality can change later)
      */
-    private static int getFramebufferDepthTextureId(Framebuffer framebuffer) {
-        try {
-            // Get depthAttachment field
-            java.lang.reflect.Field depthAttachmentField = Framebuffer.class.getDeclaredField("depthAttachment");
-            depthAttachmentField.setAccessible(true);
-            Object depthAttachment = depthAttachmentField.get(framebuffer);
-
-            if (depthAttachment == null) {
-                // System.err.println("[CustomPostProcessing] Depth attachment is null");
-                return -1;
+    private static void initReduced() {
+        if (upsampleShader != null || reducedFailed) return;
+
+        String fieldSource = "#version 330 core\n\n" + EFFECT_FIELD + """
+
+            uniform int uFieldScale;
+            uniform ivec2 uFullSize;
+
+            out vec4 fragColor;
+
+            void main() {
+                // Evaluate at the full-resolution pixel this texel stands for, so the upsample
+                // can compare against exactly the depth used here
+                ivec2 pixel = min(ivec2(gl_FragCoord.xy) * uFieldScale + uFieldScale / 2, uFullSize - 1);
+                vec2 texCoord = (vec2(pixel) + 0.5) / vec2(uFullSize);
+                float pixelDepth = texelFetch(uDepthTexture, pixel, 0).r;
+                fragColor = vec4(evaluateEffects(texCoord, pixelDepth), 0.0);
             }
+            """;
 
-            // Get the GL ID from the depth attachment (GpuTexture type)
-            java.lang.reflect.Method getGlIdMethod = depthAttachment.getClass().getMethod("getGlId");
-            int depthTextureId = (int) getGlIdMethod.invoke(depthAttachment);
+        String upsampleSource = "#version 330 core\n\n" + COMPOSITE + """
 
-            return depthTextureId;
-        } catch (Exception e) {
-            // System.err.println("[CustomPostProcessing] Failed to get depth texture ID: " + e.getMessage());
-            return -1;
-        }
+            uniform sampler2D uDepthTexture;
+            uniform sampler2D uField;
+            uniform int uFieldScale;
+            uniform ivec2 uFieldSize;
+            uniform ivec2 uFullSize;
+
+            in vec2 texCoord;
+            out vec4 fragColor;
+
+            void main() {
+                float depth = texelFetch(uDepthTexture, ivec2(gl_FragCoord.xy), 0).r;
+
+                // Bilinear footprint in the reduced field
+                vec2 fieldPos = gl_FragCoord.xy / float(uFieldScale) - 0.5;
+                ivec2 base = ivec2(floor(fieldPos));
+                vec2 f = fieldPos - vec2(base);
+
+                vec3 field = vec3(0.0);
+                float totalWeight = 0.0;
+                for (int y = 0; y <= 1; y++) {
+                    for (int x = 0; x <= 1; x++) {
+                        ivec2 texel = clamp(base + ivec2(x, y), ivec2(0), uFieldSize - 1);
+                        ivec2 pixel = min(texel * uFieldScale + uFieldScale / 2, uFullSize - 1);
+                        float sampleDepth = texelFetch(uDepthTexture, pixel, 0).r;
+
+                        // Texels across a depth edge barely contribute, so offsets don't bleed
+                        // from the background onto an occluder (and vice versa)
+                        float bilinear = (x == 1 ? f.x : 1.0 - f.x) * (y == 1 ? f.y : 1.0 - f.y);
+                        float weight = bilinear / (1e-4 + abs(sampleDepth - depth));
+                        field += texelFetch(uField, texel, 0).xyz * weight;
+                        totalWeight += weight;
+                    }
+                }
+
+                // Outside every effect: leave the framebuffer pixel untouched
+                if (field == vec3(0.0)) {
+                    discard;
+                }
+
+                field /= totalWeight;
+                fragColor = composite(texCoord, field.xy, field.z);
+            }
+            """;
+
+        fieldShader = new PostProcessingShader(VERTEX_SOURCE, fieldSource);
+        fieldShader.compileAsync();
+        upsampleShader = new PostProcessingShader(VERTEX_SOURCE, upsampleSource);
+        upsampleShader.compileAsync();
     }
 
     /**
-     * Get framebuffer color texture ID via reflection
+     * True once both reduced-resolution programs are linked
+     * Returns false (and stays on the full-resolution path) while linking or if they failed
      */
-    private static int getFramebufferTextureId(Framebuffer framebuffer) {
-        try {
-            // Get colorAttachment field
-            java.lang.reflect.Field colorAttachmentField = Framebuffer.class.getDeclaredField("colorAttachment");
-            colorAttachmentField.setAccessible(true);
-            Object colorAttachment = colorAttachmentField.get(framebuffer);
-
-            // Call getGlId() method
-            java.lang.reflect.Method getGlIdMethod = colorAttachment.getClass().getMethod("getGlId");
-            return (int) getGlIdMethod.invoke(colorAttachment);
-        } catch (Exception e) {
-            // System.err.println("[CustomPostProcessing] Failed to get texture ID: " + e.getMessage());
-            return -1;
+    private static boolean isReducedReady() {
+        if (upsampleShader == null) return false;
+
+        boolean ready = fieldShader.isReady() & upsampleShader.isReady(); // Poll both, no short-circuit
+        if (fieldShader.isFailed() || upsampleShader.isFailed()) {
+            LOGGER.error("Failed to compile reduced-resolution refraction, using full resolution");
+            deleteReduced();
+            reducedFailed = true;
+            return false;
         }
+        return ready;
     }
 
-    /**
-     * Cleanup resources
-     */
-    public static void cleanup() {
-        if (shaderProgram != -1) {
-            GL20.glDeleteProgram(shaderProgram);
-        }
-        if (vertexShader != -1) {
-            GL20.glDeleteShader(vertexShader);
-        }
-        if (fragmentShader != -1) {
-            GL20.glDeleteShader(fragmentShader);
-        }
-        if (vao != -1) {
-            GL30.glDeleteVertexArrays(vao);
-        }
-        if (tempFbo != -1) {
-            GL30.glDeleteFramebuffers(tempFbo);
-            tempFbo = -1;
-        }
-        if (sourceTexture != -1) {
-            GL11.glDeleteTextures(sourceTexture);
-            sourceTexture = -1;
+    private static void deleteReduced() {
+        if (fieldShader != null) {
+            fieldShader.delete();
+            fieldShader = null;
         }
-        if (destTexture != -1) {
-            GL11.glDeleteTextures(destTexture);
-            destTexture = -1;
+        if (upsampleShader != null) {
+            upsampleShader.delete();
+            upsampleShader = null;
         }
-        initialized = false;
     }
 
     /**
-     * Get Iris depthtex2 (world depth without hand) if Iris is installed
-     * Returns -1 if Iris is not installed or depthtex2 is not available
+     * Project each queued effect to a pixel rectangle and merge overlapping ones
+     * Offsets add up where effects overlap, so a merged region's reach is the sum of strengths
+     * Returns the number of regions written
      */
-    private static int getIrisWorldDepthTexture() {
-        try {
-            // Check if Iris is loaded by attempting to access its main class
-            Class<?> irisClass = Class.forName("net.irisshaders.iris.Iris");
-
-            // Get the PipelineManager
-            java.lang.reflect.Method getPipelineManagerMethod = irisClass.getMethod("getPipelineManager");
-            Object pipelineManager = getPipelineManagerMethod.invoke(null);
-
-            // Get the current pipeline (WorldRenderingPipeline)
-            java.lang.reflect.Method getPipelineMethod = pipelineManager.getClass().getMethod("getPipelineNullable");
-            Object pipeline = getPipelineMethod.invoke(pipelineManager);
-
-            if (pipeline == null) {
-                // System.out.println("[CustomPostProcessing] Iris: No active pipeline");
-                return -1;
-            }
-
-            // Check if it's an IrisRenderingPipeline (not vanilla)
-            if (!pipeline.getClass().getName().equals("net.irisshaders.iris.pipeline.IrisRenderingPipeline")) {
-                // System.out.println("[CustomPostProcessing] Iris: Vanilla pipeline active, no shader depth available");
-                return -1;
-            }
-
-            // Access the renderTargets field (private, need reflection)
-            java.lang.reflect.Field renderTargetsField = pipeline.getClass().getDeclaredField("renderTargets");
-            renderTargetsField.setAccessible(true);
-            Object renderTargets = renderTargetsField.get(pipeline);
-
-            if (renderTargets == null) {
-                // System.err.println("[CustomPostProcessing] Iris: renderTargets is null");
-                return -1;
-            }
+    private static int buildRegions(int count, int width, int height) {
+        float aspectRatio = (float) width / (float) height;
+        int regionCount = 0;
+
+        for (int i = 0; i < count; i++) {
+            int base = i * 4;
+            float centerX = effectData[base];
+            float centerY = 1.0f - effectData[base + 1]; // Same Y flip as the shader
+            float radius = effectData[base + 2];          // Aspect-corrected: radius / aspect in uv X
+
+            int x0 = Math.max(0, (int) Math.floor((centerX - radius / aspectRatio) * width));
+            int y0 = Math.max(0, (int) Math.floor((centerY - radius) * height));
+            int x1 = Math.min(width, (int) Math.ceil((centerX + radius / aspectRatio) * width));
+            int y1 = Math.min(height, (int) Math.ceil((centerY + radius) * height));
+            if (x0 >= x1 || y0 >= y1) continue; // Off screen
+
+            int region = regionCount * 4;
+            regions[region] = x0;
+            regions[region + 1] = y0;
+            regions[region + 2] = x1;
+            regions[region + 3] = y1;
+            regionReach[regionCount] = Math.abs(effectData[base + 3]);
+            regionCount++;
+        }
 
-            // Get depthtex2 (noHand) - world depth without hand rendering
-            java.lang.reflect.Method getDepthNoHandMethod = renderTargets.getClass().getMethod("getDepthTextureNoHand");
-            Object depthTextureNoHand = getDepthNoHandMethod.invoke(renderTargets);
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int a = 0; a < regionCount && !merged; a++) {
+                for (int b = a + 1; b < regionCount; b++) {
+                    int ra = a * 4, rb = b * 4;
+                    if (regions[ra] >= regions[rb + 2] || regions[rb] >= regions[ra + 2]
+                        || regions[ra + 1] >= regions[rb + 3] || regions[rb + 1] >= regions[ra + 3]) {
+                        continue;
+                    }
 
-            if (depthTextureNoHand == null) {
-                // System.err.println("[CustomPostProcessing] Iris: depthtex2 (noHand) is null");
-                return -1;
+                    regions[ra] = Math.min(regions[ra], regions[rb]);
+                    regions[ra + 1] = Math.min(regions[ra + 1], regions[rb + 1]);
+                    regions[ra + 2] = Math.max(regions[ra + 2], regions[rb + 2]);
+                    regions[ra + 3] = Math.max(regions[ra + 3], regions[rb + 3]);
+                    regionReach[a] += regionReach[b];
+
+                    // Move the last region into b's slot
+                    regionCount--;
+                    int last = regionCount * 4;
+                    System.arraycopy(regions, last, regions, rb, 4);
+                    regionReach[b] = regionReach[regionCount];
+                    merged = true;
+                    break;
+                }
             }
+        }
 
-            // Get the OpenGL texture ID via iris$getGlId()
-            java.lang.reflect.Method getGlIdMethod = depthTextureNoHand.getClass().getMethod("iris$getGlId");
-            int textureId = (int) getGlIdMethod.invoke(depthTextureNoHand);
-
-            // System.out.println("[CustomPostProcessing] Iris: Successfully accessed depthtex2 (world depth, no hand): " + textureId);
-            return textureId;
+        return regionCount;
+    }
 
-        } catch (ClassNotFoundException e) {
-            // System.out.println("[CustomPostProcessing] Iris not installed, using fallback depth");
-            return -1;
-        } catch (Exception e) {
-            // System.err.println("[CustomPostProcessing] Failed to access Iris depth texture:");
-            e.printStackTrace();
-            return -1;
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (mainShader != null) {
+            mainShader.delete();
+            mainShader = null;
+            shaderProgram = -1;
+        }
+        if (vao != -1) {
+            GL30.glDeleteVertexArrays(vao);
         }
+        deleteReduced();
+        reducedFailed = false;
+        ComputeRefraction.cleanup();
+        initialized = false;
     }
 }
@@ -1,6 +1,5 @@
 package com.justheare.paperjjk_client.render;
 
-import com.justheare.paperjjk_client.data.ClientGameData;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.*;
@@ -22,6 +21,11 @@ public class DebugRenderer {
     private static Vec3d effect1Position = null;
     private static Vec3d effect2Position = null;
 
+    // LOD tier per debug sphere (for hysteresis, see SphereLod)
+    private static int cubeLodTier = -1;
+    private static int effect1LodTier = -1;
+    private static int effect2LodTier = -1;
+
     public static void toggleCube() {
         renderCube = !renderCube;
         System.out.println("[PaperJJK Debug] Cube rendering: " + renderCube);
@@ -60,7 +64,7 @@ public class DebugRenderer {
 
         Vec3d cameraPos = camera.getPos();
 
-        // Debug mode: render test sphere in front of camera
+        // Debug mode: render test sphere in front of camera (culled like every other sphere)
         if (renderCube) {
             System.out.println("[PaperJJK Debug] Render called!");
 
@@ -72,153 +76,63 @@ public class DebugRenderer {
 
             Vec3d testPos = cameraPos.add(cameraDir.normalize().multiply(2.0));
 
-            matrices.push();
-            try {
-                matrices.translate(
-                    testPos.x - cameraPos.x,
-                    testPos.y - cameraPos.y,
-                    testPos.z - cameraPos.z
-                );
-
-                renderSphere(matrices.peek().getPositionMatrix(), 0.5f, 1.0f, 0.0f, 0.0f, 1.0f, consumers, cameraPos, testPos);
-
-            } catch (Exception e) {
-                System.err.println("[PaperJJK Debug] Error rendering test sphere: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                matrices.pop();
-            }
-        }
-
-        // Render all active domains
-        for (ClientGameData.ActiveDomain domain : ClientGameData.getAllDomains()) {
-            matrices.push();
-            try {
-                // Translate to domain center (relative to camera)
-                matrices.translate(
-                    domain.center.x - cameraPos.x,
-                    domain.center.y - cameraPos.y,
-                    domain.center.z - cameraPos.z
-                );
-
-                // Extract RGB from color int (0xRRGGBB)
-                float r = ((domain.color >> 16) & 0xFF) / 255.0f;
-                float g = ((domain.color >> 8) & 0xFF) / 255.0f;
-                float b = (domain.color & 0xFF) / 255.0f;
-                float a = 0.5f; // Semi-transparent
-
-                // Render sphere with current radius
-                renderSphere(matrices.peek().getPositionMatrix(), domain.currentRadius, r, g, b, a, consumers, cameraPos, domain.center);
-
-            } catch (Exception e) {
-                System.err.println("[PaperJJK Debug] Error rendering domain: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                matrices.pop();
+            if (SphereCulling.isVisible(testPos, 0.5f)) {
+                matrices.push();
+                try {
+                    matrices.translate(
+                        testPos.x - cameraPos.x,
+                        testPos.y - cameraPos.y,
+                        testPos.z - cameraPos.z
+                    );
+
+                    cubeLodTier = SphereLod.selectTier(SphereLod.projectedSize(testPos, 0.5f), cubeLodTier);
+                    renderSphere(matrices.peek().getPositionMatrix(), 0.5f, SphereLod.getSegments(cubeLodTier),
+                        1.0f, 0.0f, 0.0f, 1.0f, consumers, cameraPos, testPos);
+
+                } catch (Exception e) {
+                    System.err.println("[PaperJJK Debug] Error rendering test sphere: " + e.getMessage());
+                    e.printStackTrace();
+                } finally {
+                    matrices.pop();
+                }
             }
         }
 
-        // Render debug effect 1 (blue)
-        if (renderEffect1 && effect1Position != null) {
-            matrices.push();
-            try {
-                matrices.translate(
-                    effect1Position.x - cameraPos.x,
-                    effect1Position.y - cameraPos.y,
-                    effect1Position.z - cameraPos.z
-                );
-
-                // Blue glowing effect with Fresnel
-                renderFresnelSphere(matrices.peek().getPositionMatrix(), 5.0f,
-                    0.2f, 0.4f, 0.8f,  // Blue color
-                    consumers, cameraPos, effect1Position);
-
-            } catch (Exception e) {
-                System.err.println("[PaperJJK Debug] Error rendering effect 1: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                matrices.pop();
-            }
+        // Render debug effect 1 (blue glow, Fresnel shaded on the GPU)
+        if (renderEffect1 && effect1Position != null && SphereCulling.isVisible(effect1Position, 5.0f)) {
+            effect1LodTier = SphereLod.selectTier(SphereLod.projectedSize(effect1Position, 5.0f), effect1LodTier);
+            FresnelShellRenderer.submit(effect1Position, 5.0f, effect1LodTier,
+                0.2f, 0.4f, 0.8f);  // Blue color
         }
 
-        // Render debug effect 2 (yellow/red)
-        if (renderEffect2 && effect2Position != null) {
-            matrices.push();
-            try {
-                matrices.translate(
-                    effect2Position.x - cameraPos.x,
-                    effect2Position.y - cameraPos.y,
-                    effect2Position.z - cameraPos.z
-                );
-
-                // Yellow/red glowing effect with Fresnel (smaller sphere)
-                renderFresnelSphere(matrices.peek().getPositionMatrix(), 2.5f,
-                    1.0f, 0.8f, 0.2f,  // Yellow/orange color
-                    consumers, cameraPos, effect2Position);
-
-            } catch (Exception e) {
-                System.err.println("[PaperJJK Debug] Error rendering effect 2: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                matrices.pop();
-            }
+        // Render debug effect 2 (yellow/red glow, smaller sphere)
+        if (renderEffect2 && effect2Position != null && SphereCulling.isVisible(effect2Position, 2.5f)) {
+            effect2LodTier = SphereLod.selectTier(SphereLod.projectedSize(effect2Position, 2.5f), effect2LodTier);
+            FresnelShellRenderer.submit(effect2Position, 2.5f, effect2LodTier,
+                1.0f, 0.8f, 0.2f);  // Yellow/orange color
         }
     }
 
     /**
      * Render a solid filled sphere using quads (4 vertices each)
+     * Segment count comes from SphereLod (projected screen size)
      * RenderLayer.getDebugQuads() renders both front and back faces
      */
-    private static void renderSphere(Matrix4f matrix, float radius, float r, float g, float b, float a,
+    private static void renderSphere(Matrix4f matrix, float radius, int segments, float r, float g, float b, float a,
                                      VertexConsumerProvider consumers, Vec3d cameraPos, Vec3d sphereCenter) {
         try {
             // Use debug quads layer - renders without depth write, visible from both sides
             VertexConsumer vertexConsumer = consumers.getBuffer(RenderLayer.getDebugQuads());
 
-            int segments = 32; // Number of divisions (higher = smoother)
+            // Precomputed unit sphere - only scale by radius here
+            SphereMeshCache.SphereMesh mesh = SphereMeshCache.get(segments);
+            float[] unit = mesh.positions;
 
-            // Draw sphere as quads (latitude by latitude)
-            for (int lat = 0; lat < segments; lat++) {
-                float theta1 = (float) (lat * Math.PI / segments);
-                float theta2 = (float) ((lat + 1) * Math.PI / segments);
-
-                for (int lon = 0; lon < segments; lon++) {
-                    float phi1 = (float) (lon * 2 * Math.PI / segments);
-                    float phi2 = (float) ((lon + 1) * 2 * Math.PI / segments);
-
-                    // Calculate 4 vertices of the quad
-                    // v1: (theta1, phi1)
-                    float x1 = radius * (float) Math.sin(theta1) * (float) Math.cos(phi1);
-                    float y1 = radius * (float) Math.cos(theta1);
-                    float z1 = radius * (float) Math.sin(theta1) * (float) Math.sin(phi1);
-
-                    // v2: (theta2, phi1)
-                    float x2 = radius * (float) Math.sin(theta2) * (float) Math.cos(phi1);
-                    float y2 = radius * (float) Math.cos(theta2);
-                    float z2 = radius * (float) Math.sin(theta2) * (float) Math.sin(phi1);
-
-                    // v3: (theta2, phi2)
-                    float x3 = radius * (float) Math.sin(theta2) * (float) Math.cos(phi2);
-                    float y3 = radius * (float) Math.cos(theta2);
-                    float z3 = radius * (float) Math.sin(theta2) * (float) Math.sin(phi2);
-
-                    // v4: (theta1, phi2)
-                    float x4 = radius * (float) Math.sin(theta1) * (float) Math.cos(phi2);
-                    float y4 = radius * (float) Math.cos(theta1);
-                    float z4 = radius * (float) Math.sin(theta1) * (float) Math.sin(phi2);
-
-                    // Calculate normals (pointing outward from center)
-                    float nx1 = x1 / radius, ny1 = y1 / radius, nz1 = z1 / radius;
-                    float nx2 = x2 / radius, ny2 = y2 / radius, nz2 = z2 / radius;
-                    float nx3 = x3 / radius, ny3 = y3 / radius, nz3 = z3 / radius;
-                    float nx4 = x4 / radius, ny4 = y4 / radius, nz4 = z4 / radius;
-
-                    // Draw as a quad (4 vertices in correct winding order)
-                    vertexConsumer.vertex(matrix, x1, y1, z1).color(r, g, b, a).normal(nx1, ny1, nz1);
-                    vertexConsumer.vertex(matrix, x2, y2, z2).color(r, g, b, a).normal(nx2, ny2, nz2);
-                    vertexConsumer.vertex(matrix, x3, y3, z3).color(r, g, b, a).normal(nx3, ny3, nz3);
-                    vertexConsumer.vertex(matrix, x4, y4, z4).color(r, g, b, a).normal(nx4, ny4, nz4);
-                }
+            for (int i = 0; i < mesh.vertexCount * 3; i += 3) {
+                float nx = unit[i], ny = unit[i + 1], nz = unit[i + 2];
+                vertexConsumer.vertex(matrix, nx * radius, ny * radius, nz * radius)
+                    .color(r, g, b, a)
+                    .normal(nx, ny, nz);
             }
 
         } catch (Exception e) {
@@ -226,113 +140,4 @@ public class DebugRenderer {
             e.printStackTrace();
         }
     }
-
-    /**
-     * Render a Fresnel-based glowing sphere effect
-     * Edges glow brightly, center is more transparent
-     */
-    private static void renderFresnelSphere(Matrix4f matrix, float radius,
-                                           float baseR, float baseG, float baseB,
-                                           VertexConsumerProvider consumers,
-                                           Vec3d cameraPos, Vec3d sphereCenter) {
-        try {
-            VertexConsumer vertexConsumer = consumers.getBuffer(RenderLayer.getDebugQuads());
-
-            int segments = 32;
-
-            // Draw sphere as quads with Fresnel-based coloring
-            for (int lat = 0; lat < segments; lat++) {
-                float theta1 = (float) (lat * Math.PI / segments);
-                float theta2 = (float) ((lat + 1) * Math.PI / segments);
-
-                for (int lon = 0; lon < segments; lon++) {
-                    float phi1 = (float) (lon * 2 * Math.PI / segments);
-                    float phi2 = (float) ((lon + 1) * 2 * Math.PI / segments);
-
-                    // Calculate 4 vertices
-                    Vec3d v1 = getVertexOnSphere(sphereCenter, radius, theta1, phi1);
-                    Vec3d v2 = getVertexOnSphere(sphereCenter, radius, theta2, phi1);
-                    Vec3d v3 = getVertexOnSphere(sphereCenter, radius, theta2, phi2);
-                    Vec3d v4 = getVertexOnSphere(sphereCenter, radius, theta1, phi2);
-
-                    // Calculate normals (pointing outward)
-                    Vec3d n1 = v1.subtract(sphereCenter).normalize();
-                    Vec3d n2 = v2.subtract(sphereCenter).normalize();
-                    Vec3d n3 = v3.subtract(sphereCenter).normalize();
-                    Vec3d n4 = v4.subtract(sphereCenter).normalize();
-
-                    // Calculate Fresnel for each vertex
-                    float f1 = calculateFresnel(v1, n1, cameraPos);
-                    float f2 = calculateFresnel(v2, n2, cameraPos);
-                    float f3 = calculateFresnel(v3, n3, cameraPos);
-                    float f4 = calculateFresnel(v4, n4, cameraPos);
-
-                    // Convert to local coordinates (already translated by matrix)
-                    Vec3d local1 = v1.subtract(sphereCenter);
-                    Vec3d local2 = v2.subtract(sphereCenter);
-                    Vec3d local3 = v3.subtract(sphereCenter);
-                    Vec3d local4 = v4.subtract(sphereCenter);
-
-                    // Draw quad with Fresnel-based colors
-                    addFresnelVertex(vertexConsumer, matrix, local1, n1, f1, baseR, baseG, baseB);
-                    addFresnelVertex(vertexConsumer, matrix, local2, n2, f2, baseR, baseG, baseB);
-                    addFresnelVertex(vertexConsumer, matrix, local3, n3, f3, baseR, baseG, baseB);
-                    addFresnelVertex(vertexConsumer, matrix, local4, n4, f4, baseR, baseG, baseB);
-                }
-            }
-
-        } catch (Exception e) {
-            System.err.println("[PaperJJK Debug] Error in renderFresnelSphere: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Get vertex position on sphere surface
-     */
-    private static Vec3d getVertexOnSphere(Vec3d center, float radius, float theta, float phi) {
-        double x = center.x + radius * Math.sin(theta) * Math.cos(phi);
-        double y = center.y + radius * Math.cos(theta);
-        double z = center.z + radius * Math.sin(theta) * Math.sin(phi);
-        return new Vec3d(x, y, z);
-    }
-
-    /**
-     * Calculate Fresnel term
-     * Returns 0 when looking straight at surface (perpendicular)
-     * Returns 1 when looking at grazing angle (parallel)
-     */
-    private static float calculateFresnel(Vec3d vertexPos, Vec3d normal, Vec3d cameraPos) {
-        Vec3d viewDir = cameraPos.subtract(vertexPos).normalize();
-        double dotProduct = normal.dotProduct(viewDir);
-        // Clamp to avoid negative values
-        dotProduct = Math.max(0.0, Math.min(1.0, dotProduct));
-
-        // Fresnel: 1 - dot(N, V)
-        // Raised to power for sharper falloff
-        float fresnel = (float) Math.pow(1.0 - dotProduct, 3.0);
-        return fresnel;
-    }
-
-    /**
-     * Add vertex with Fresnel-based color and alpha
-     */
-    private static void addFresnelVertex(VertexConsumer consumer, Matrix4f matrix,
-                                        Vec3d pos, Vec3d normal, float fresnel,
-                                        float baseR, float baseG, float baseB) {
-        // Brighten edges based on Fresnel
-        float r = baseR + fresnel * 1.5f;
-        float g = baseG + fresnel * 1.5f;
-        float b = baseB + fresnel * 0.5f;
-
-        // Alpha: edges more opaque, center more transparent
-        float a = 0.3f + fresnel * 0.6f;
-
-        // Add vertex
-        consumer.vertex(matrix, (float)pos.x, (float)pos.y, (float)pos.z)
-                .color(r, g, b, a)
-                .normal((float)normal.x, (float)normal.y, (float)normal.z);
-    }
-
-
 }
@@ -0,0 +1,132 @@
+package com.justheare.paperjjk_client.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background builder for shaped domain shells
+ *
+ * Meshes are generated on a small worker pool into off-heap buffers and cached by
+ * (shape, segments). The render thread uploads finished buffers at the start of a frame;
+ * until then get() returns null and callers draw a plain sphere, so a new domain type
+ * never stalls a frame.
+ */
+public class DomainMeshService {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-MeshService");
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)),
+        runnable -> {
+            Thread thread = new Thread(runnable, "PaperJJK-MeshBuilder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+    // Render thread only
+    private static final Map<Integer, GpuSphereMeshes.Mesh> ready = new HashMap<>();
+    private static final Set<Integer> pending = new HashSet<>();
+    private static final Set<Integer> failed = new HashSet<>();
+
+    // Worker -> render thread handoff
+    private static final Queue<BuiltMesh> completed = new ConcurrentLinkedQueue<>();
+
+    private static int key(DomainShape shape, int segments) {
+        return (shape.ordinal() << 16) | segments;
+    }
+
+    /**
+     * Get the uploaded mesh, or queue a build and return null
+     * Render thread only
+     */
+    public static GpuSphereMeshes.Mesh get(DomainShape shape, int segments) {
+        int key = key(shape, segments);
+        GpuSphereMeshes.Mesh mesh = ready.get(key);
+        if (mesh != null || pending.contains(key) || failed.contains(key)) {
+            return mesh;
+        }
+
+        pending.add(key);
+        workers.execute(() -> {
+            try {
+                completed.add(new BuiltMesh(key, build(shape, segments)));
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to build {} mesh ({} segments)", shape, segments, e);
+                completed.add(new BuiltMesh(key, null));
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Upload meshes finished since the last call
+     * Render thread only
+     */
+    public static void uploadCompleted() {
+        RenderSystem.assertOnRenderThread();
+
+        BuiltMesh built;
+        while ((built = completed.poll()) != null) {
+            pending.remove(built.key);
+            if (built.positions == null) {
+                failed.add(built.key);
+                continue;
+            }
+
+            try {
+                ready.put(built.key, GpuSphereMeshes.upload(built.positions));
+            } finally {
+                MemoryUtil.memFree(built.positions);
+            }
+        }
+    }
+
+    /**
+     * Displace the cached unit sphere by the shape function (worker thread)
+     */
+    private static FloatBuffer build(DomainShape shape, int segments) {
+        float[] unit = SphereMeshCache.get(segments).positions;
+        FloatBuffer positions = MemoryUtil.memAllocFloat(unit.length);
+        try {
+            for (int i = 0; i < unit.length; i += 3) {
+                float x = unit[i], y = unit[i + 1], z = unit[i + 2];
+                float scale = 1.0f + shape.displacement(x, y, z);
+                positions.put(x * scale).put(y * scale).put(z * scale);
+            }
+            positions.flip();
+            return positions;
+        } catch (RuntimeException e) {
+            MemoryUtil.memFree(positions);
+            throw e;
+        }
+    }
+
+    /**
+     * Cleanup resources
+     * Builds still in flight are uploaded and kept if they finish later
+     */
+    public static void cleanup() {
+        for (GpuSphereMeshes.Mesh mesh : ready.values()) {
+            mesh.delete();
+        }
+        ready.clear();
+        failed.clear();
+    }
+
+    private record BuiltMesh(int key, FloatBuffer positions) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.data.ClientGameData;
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.GlState;
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import com.justheare.paperjjk_client.util.RenderHandles;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.Vec3d;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Full-screen raymarched domain renderer
+ *
+ * Every visible domain is passed to domain_sphere.fsh as uniform arrays; the shader
+ * intersects each pixel's view ray with all spheres and shades shell, interior tint and
+ * terrain intersection against the scene depth. One draw, no geometry, cost scales with
+ * pixels instead of vertex count. Domains with a custom shell shape (see DomainShape)
+ * are left to DomainShellRenderer, and so are plain spheres past MAX_DOMAINS: the largest
+ * on screen are raymarched, the rest drawn as instanced shells (see getRaymarchedDomains).
+ *
+ * Each pixel's layers (interior tint, shell, terrain line) are accumulated with the OIT
+ * weights and drawn into OitPass's targets, so overlapping domains don't depend on uniform
+ * order and are resolved together with the translucent shells.
+ */
+public class DomainRaymarchRenderer {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-DomainRaymarch");
+
+    private static final String SHADER_PATH = "/assets/paperjjk-client/shaders/program/domain_sphere";
+    private static final int MAX_DOMAINS = 16; // Must match MAX_DOMAINS in domain_sphere.fsh
+
+    private static PostProcessingShader shader;
+    private static int vao = -1;
+
+    // Uniform array staging (reused every frame)
+    private static final float[] domainSpheres = new float[MAX_DOMAINS * 4];
+    private static final float[] domainColors = new float[MAX_DOMAINS * 4];
+
+    // Plain-sphere domains visible this frame, and the ones actually drawn by this pass
+    private static final List<ClientGameData.ActiveDomain> candidates = new ArrayList<>();
+    private static final Set<UUID> raymarchedDomains = new HashSet<>();
+    private static final Set<UUID> raymarchedView = Collections.unmodifiableSet(raymarchedDomains);
+
+    private static boolean initialized = false;
+    private static boolean failed = false;
+
+    /**
+     * Issue the shader build and create the VAO (ShaderWarmup stage)
+     */
+    public static void init() {
+        if (initialized || failed) return;
+
+        try {
+            String fragmentSource = loadSource(".fsh").replace("//#OIT_OUTPUT", OitPass.FRAGMENT_OUTPUT);
+            shader = new PostProcessingShader(loadSource(".vsh"), fragmentSource);
+            shader.compileAsync();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to load domain raymarch shader, falling back to shell geometry", e);
+            failed = true;
+            return;
+        }
+
+        // Empty VAO for the full-screen triangle (positions come from gl_VertexID)
+        vao = GL30.glGenVertexArrays();
+
+        initialized = true;
+    }
+
+    private static String loadSource(String extension) throws IOException {
+        try (InputStream stream = DomainRaymarchRenderer.class.getResourceAsStream(SHADER_PATH + extension)) {
+            if (stream == null) {
+                throw new IOException("Missing shader resource: " + SHADER_PATH + extension);
+            }
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Draw up to MAX_DOMAINS plain-sphere domains in one full-screen pass
+     * Call between OitPass.begin() and end(); CameraMatrices must be updated for this frame
+     * Afterwards getRaymarchedDomains() holds what was drawn; DomainShellRenderer draws every
+     * other domain (all of them if the pass is unavailable or still linking)
+     */
+    public static void render() {
+        raymarchedDomains.clear();
+        if (failed || ClientGameData.getAllDomains().isEmpty()) return;
+
+        RenderSystem.assertOnRenderThread();
+        if (!initialized || !shader.isReady()) {
+            if (initialized && shader.isFailed()) {
+                LOGGER.error("Domain raymarch shader failed to link, falling back to shell geometry");
+                failed = true;
+            }
+            return;
+        }
+
+        int depthTexture = RenderHandles.getDepthTextureId(MinecraftClient.getInstance().getFramebuffer());
+        if (depthTexture == -1) return;
+
+        int domainCount = fillDomains();
+        if (domainCount == 0) return;
+
+        // Color only: the depth texture is sampled, so it must not be attached
+        // (blend state comes from OitPass.begin: weighted accumulation, or alpha blending)
+        if (!OitPass.bindFullscreen()) {
+            raymarchedDomains.clear();
+            return;
+        }
+
+        GlState.cull(false);
+        GlState.bindTexture(0, depthTexture);
+
+        shader.use();
+        GL20.glUniform1i(shader.getUniformLocation("uDepthTexture"), 0);
+        GL20.glUniformMatrix4fv(shader.getUniformLocation("uInvViewProj"), false,
+            CameraMatrices.getInverseViewProjectionArray());
+        GL20.glUniformMatrix4fv(shader.getUniformLocation("uViewProj"), false,
+            CameraMatrices.getViewProjectionArray());
+        GL20.glUniform1i(shader.getUniformLocation("uOitEnabled"), OitPass.isActive() ? 1 : 0);
+        GL20.glUniform1i(shader.getUniformLocation("uDomainCount"), domainCount);
+        GL20.glUniform4fv(shader.getUniformLocation("uDomainSphere"), domainSpheres);
+        GL20.glUniform4fv(shader.getUniformLocation("uDomainColor"), domainColors);
+
+        GL30.glBindVertexArray(vao);
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, 3);
+
+        GL30.glBindVertexArray(0);
+        GL20.glUseProgram(0);
+        OitPass.bindGeometry();
+    }
+
+    /**
+     * Domains drawn by this frame's pass (empty if it didn't run); read-only view
+     */
+    public static Set<UUID> getRaymarchedDomains() {
+        return raymarchedView;
+    }
+
+    /**
+     * Fill the uniform arrays with visible domains (camera-relative) and record them
+     * Past MAX_DOMAINS the largest on screen are kept; the overflow goes to the shell path
+     * Returns the number of domains written
+     */
+    private static int fillDomains() {
+        candidates.clear();
+        for (ClientGameData.ActiveDomain domain : ClientGameData.getAllDomains()) {
+            if (domain.currentRadius <= 0) continue;
+            if (DomainShape.forType(domain.domainType).isCustom()) continue;
+            if (!SphereCulling.isVisible(domain.center, domain.currentRadius)) continue;
+            candidates.add(domain);
+        }
+        if (candidates.size() > MAX_DOMAINS) {
+            candidates.sort(Comparator.comparingDouble(
+                (ClientGameData.ActiveDomain domain) -> SphereLod.projectedSize(domain.center, domain.currentRadius))
+                .reversed());
+        }
+
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        int count = Math.min(MAX_DOMAINS, candidates.size());
+        for (int i = 0; i < count; i++) {
+            ClientGameData.ActiveDomain domain = candidates.get(i);
+            int base = count * 4;
+            domainSpheres[base] = (float) (domain.center.x - cameraPos.x);
+            domainSpheres[base + 1] = (float) (domain.center.y - cameraPos.y);
+            domainSpheres[base + 2] = (float) (domain.center.z - cameraPos.z);
+            domainSpheres[base + 3] = domain.currentRadius;
+            // Extract RGB from color int (0xRRGGBB), type in alpha
+            domainColors[base] = ((domain.color >> 16) & 0xFF) / 255.0f;
+            domainColors[base + 1] = ((domain.color >> 8) & 0xFF) / 255.0f;
+            domainColors[base + 2] = (domain.color & 0xFF) / 255.0f;
+            domainColors[base + 3] = domain.domainType;
+            raymarchedDomains.add(domain.domainId);
+        }
+        candidates.clear();
+
+        return count;
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        raymarchedDomains.clear();
+        if (shader != null) {
+            shader.delete();
+            shader = null;
+        }
+        if (vao != -1) {
+            GL30.glDeleteVertexArrays(vao);
+            vao = -1;
+        }
+        initialized = false;
+    }
+}
@@ -0,0 +1,58 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.network.PacketIds;
+
+/**
+ * Shell shape per domain type
+ * Each shape is a unit sphere displaced radially by a function of the surface direction,
+ * so every shape shares the sphere's topology, LOD tiers and instance layout.
+ */
+public enum DomainShape {
+    SPHERE {
+        @Override
+        float displacement(float x, float y, float z) {
+            return 0.0f;
+        }
+    },
+
+    /** Malevolent Shrine: ridged pillars around the equator */
+    SHRINE {
+        @Override
+        float displacement(float x, float y, float z) {
+            float ridge = (float) Math.abs(Math.cos(4.0 * Math.atan2(z, x)));
+            ridge *= ridge;
+            ridge *= ridge;
+            ridge *= ridge; // ^8 for sharp ridges
+            return 0.12f * ridge * (1.0f - Math.abs(y));
+        }
+    },
+
+    /** Unlimited Void: layered turbulence over the whole surface */
+    VOID {
+        @Override
+        float displacement(float x, float y, float z) {
+            double turbulence = Math.sin(7.0 * x + 3.0 * y) * Math.sin(5.0 * z + 2.0 * x)
+                + 0.5 * Math.sin(13.0 * y + 11.0 * z) * Math.sin(9.0 * x)
+                + 0.25 * Math.sin(23.0 * z + 17.0 * x) * Math.sin(19.0 * y);
+            return (float) (0.05 * turbulence);
+        }
+    };
+
+    /**
+     * Radial offset for a unit direction (0 = on the unit sphere)
+     * Called from mesh builder threads, must be pure
+     */
+    abstract float displacement(float x, float y, float z);
+
+    public boolean isCustom() {
+        return this != SPHERE;
+    }
+
+    public static DomainShape forType(int domainType) {
+        return switch (domainType) {
+            case PacketIds.DomainType.MIZUSHI -> SHRINE;
+            case PacketIds.DomainType.INFINITY -> VOID;
+            default -> SPHERE;
+        };
+    }
+}
@@ -0,0 +1,245 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.data.ClientGameData;
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.util.math.Vec3d;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Instanced domain shell renderer
+ *
+ * Static unit-sphere meshes live in GPU buffers; a per-instance buffer holds each
+ * domain's center, radius and color. Domains are grouped by LOD tier and shape and each
+ * group is drawn with one instanced call, so CPU cost no longer depends on sphere
+ * resolution or domain count. Shaped meshes come from DomainMeshService; a plain sphere
+ * is drawn until they are ready. Shells are composited with weighted-blended OIT
+ * (see OitPass), so overlapping domains need no sorting.
+ */
+public class DomainShellRenderer {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-DomainShell");
+
+    private static final int FLOATS_PER_INSTANCE = 8; // center.xyz, radius, r, g, b, a
+    private static final float DOMAIN_ALPHA = 0.5f;   // Semi-transparent
+
+    private static PostProcessingShader shader;
+    private static int instanceVbo = -1;
+
+    private static final DomainShape[] SHAPES = DomainShape.values();
+    private static int[] groupInstanceCounts = new int[0]; // Indexed by tier * SHAPES.length + shape
+
+    // LOD tier per drawn domain (hysteresis state): last frame's and this frame's
+    // Domains not drawn this frame drop out, so their tier is re-selected fresh once visible again
+    private static Map<UUID, Integer> lodTiers = new HashMap<>();
+    private static Map<UUID, Integer> nextLodTiers = new HashMap<>();
+
+    private static FloatBuffer instanceData = MemoryUtil.memAllocFloat(16 * FLOATS_PER_INSTANCE);
+    private static int instanceCapacity = 0; // Instances the GPU buffer can hold
+
+    private static boolean initialized = false;
+    private static boolean failed = false;
+
+    /**
+     * Issue the shader build and create the instance buffer (ShaderWarmup stage)
+     */
+    public static void init() {
+        if (initialized || failed) return;
+
+        String vertexSource = """
+            #version 330 core
+
+            layout(location = 0) in vec3 aPosition;      // Unit sphere (also the normal)
+            layout(location = 1) in vec4 aCenterRadius;  // Camera-relative center, radius
+            layout(location = 2) in vec4 aColor;
+
+            uniform mat4 uViewProj;
+
+            out vec4 vColor;
+
+            void main() {
+                vec3 position = aCenterRadius.xyz + aPosition * aCenterRadius.w;
+                gl_Position = uViewProj * vec4(position, 1.0);
+                vColor = aColor;
+            }
+            """;
+
+        String fragmentSource = """
+            #version 330 core
+
+            in vec4 vColor;
+            """ + OitPass.FRAGMENT_OUTPUT + """
+
+            void main() {
+                writeTranslucent(vColor);
+            }
+            """;
+
+        shader = new PostProcessingShader(vertexSource, fragmentSource);
+        shader.compileAsync();
+
+        instanceVbo = GL15.glGenBuffers();
+
+        initialized = true;
+    }
+
+    /**
+     * True once warmed up and linked (never waits on the driver)
+     */
+    private static boolean isReady() {
+        if (!initialized) return false;
+        if (shader.isFailed()) {
+            LOGGER.error("Failed to compile domain shell shader");
+            failed = true;
+            return false;
+        }
+        return shader.isReady();
+    }
+
+    /**
+     * Draw active domains, one instanced call per (LOD tier, shape)
+     * Domains in raymarched are skipped (already drawn by DomainRaymarchRenderer)
+     * Must be called between OitPass.begin() and end(); CameraMatrices must be updated for this frame
+     */
+    public static void render(Set<UUID> raymarched) {
+        if (failed || ClientGameData.getAllDomains().isEmpty()) return;
+
+        RenderSystem.assertOnRenderThread();
+        if (!isReady()) return;
+
+        DomainMeshService.uploadCompleted();
+
+        int instanceCount = fillInstances(raymarched);
+        if (instanceCount == 0) return;
+
+        shader.use();
+        GL20.glUniformMatrix4fv(shader.getUniformLocation("uViewProj"), false,
+            CameraMatrices.getViewProjectionArray());
+        GL20.glUniform1i(shader.getUniformLocation("uOitEnabled"), OitPass.isActive() ? 1 : 0);
+
+        // One instanced draw per group; instances are stored sorted by group
+        int firstInstance = 0;
+        for (int group = 0; group < groupInstanceCounts.length; group++) {
+            int count = groupInstanceCounts[group];
+            if (count == 0) continue;
+
+            int segments = SphereLod.getSegments(group / SHAPES.length);
+            DomainShape shape = SHAPES[group % SHAPES.length];
+            GpuSphereMeshes.Mesh mesh = shape.isCustom() ? DomainMeshService.get(shape, segments) : null;
+            if (mesh == null) {
+                // Plain sphere (or shaped mesh still building)
+                mesh = GpuSphereMeshes.get(segments);
+            }
+            GL30.glBindVertexArray(mesh.vao);
+            GpuSphereMeshes.bindInstanceAttributes(instanceVbo, FLOATS_PER_INSTANCE, firstInstance);
+            GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, mesh.indexCount, GL11.GL_UNSIGNED_INT, 0, count);
+            firstInstance += count;
+        }
+
+        GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL20.glUseProgram(0);
+    }
+
+    /**
+     * Fill the instance buffer from ClientGameData with visible domains, sorted by (LOD tier, shape)
+     * Returns the number of instances written
+     */
+    private static int fillInstances(Set<UUID> raymarched) {
+        int groupCount = SphereLod.getTierCount() * SHAPES.length;
+        if (groupInstanceCounts.length != groupCount) {
+            groupInstanceCounts = new int[groupCount];
+        }
+        Arrays.fill(groupInstanceCounts, 0);
+
+        // Cull and select tiers first
+        nextLodTiers.clear();
+        for (ClientGameData.ActiveDomain domain : ClientGameData.getAllDomains()) {
+            if (domain.currentRadius <= 0) continue;
+            if (raymarched.contains(domain.domainId)) continue;
+            if (!SphereCulling.isVisible(domain.center, domain.currentRadius)) continue;
+
+            int tier = SphereLod.selectTier(SphereLod.projectedSize(domain.center, domain.currentRadius),
+                lodTiers.getOrDefault(domain.domainId, -1));
+            nextLodTiers.put(domain.domainId, tier);
+        }
+        Map<UUID, Integer> swap = lodTiers;
+        lodTiers = nextLodTiers;
+        nextLodTiers = swap;
+
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        int count = 0;
+
+        instanceData.clear();
+        for (int group = 0; group < groupCount; group++) {
+            int tier = group / SHAPES.length;
+            DomainShape shape = SHAPES[group % SHAPES.length];
+            for (ClientGameData.ActiveDomain domain : ClientGameData.getAllDomains()) {
+                if (domain.currentRadius <= 0 || lodTiers.getOrDefault(domain.domainId, -1) != tier) continue;
+                if (DomainShape.forType(domain.domainType) != shape) continue;
+
+                if (instanceData.remaining() < FLOATS_PER_INSTANCE) {
+                    instanceData = MemoryUtil.memRealloc(instanceData, instanceData.capacity() * 2);
+                }
+
+                instanceData.put((float) (domain.center.x - cameraPos.x));
+                instanceData.put((float) (domain.center.y - cameraPos.y));
+                instanceData.put((float) (domain.center.z - cameraPos.z));
+                instanceData.put(domain.currentRadius);
+                // Extract RGB from color int (0xRRGGBB)
+                instanceData.put(((domain.color >> 16) & 0xFF) / 255.0f);
+                instanceData.put(((domain.color >> 8) & 0xFF) / 255.0f);
+                instanceData.put((domain.color & 0xFF) / 255.0f);
+                instanceData.put(DOMAIN_ALPHA);
+                groupInstanceCounts[group]++;
+                count++;
+            }
+        }
+        instanceData.flip();
+
+        if (count == 0) return 0;
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        if (count > instanceCapacity) {
+            // Grow the GPU buffer to match the CPU buffer
+            instanceCapacity = instanceData.capacity() / FLOATS_PER_INSTANCE;
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) instanceData.capacity() * Float.BYTES, GL15.GL_STREAM_DRAW);
+        }
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, instanceData);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        return count;
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (shader != null) {
+            shader.delete();
+            shader = null;
+        }
+        if (instanceVbo != -1) {
+            GL15.glDeleteBuffers(instanceVbo);
+            instanceVbo = -1;
+        }
+        instanceCapacity = 0;
+        lodTiers.clear();
+        nextLodTiers.clear();
+        initialized = false;
+    }
+}
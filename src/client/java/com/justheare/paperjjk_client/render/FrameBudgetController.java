@@ -0,0 +1,208 @@
+package com.justheare.paperjjk_client.render;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the JJK passes inside a per-frame time budget
+ *
+ * Every JJK section (world pass, refraction, HUD composite) is bracketed with
+ * beginSection()/endSection(): CPU time from System.nanoTime, GPU time from a timestamp pair
+ * in the ring shared with GpuProfiler (GpuTimestamps). Results are read a few frames later
+ * and only once the driver reports them available, so measuring never stalls the pipeline;
+ * a frame that is still pending when its slot comes round is simply dropped.
+ *
+ * The smoothed cost (the slower of CPU and GPU, they overlap) drives a degradation level:
+ * each level lowers the refraction resolution cap, coarsens sphere LOD and limits how many
+ * refraction effects are processed. Degrading is quick, recovering needs a long run well
+ * under budget, and each change waits for fresh measurements before the next one.
+ *
+ * Budget: -Dpaperjjk.frameBudgetMs (default 3.0, 0 disables) or /jjkdebug budget.
+ */
+public class FrameBudgetController {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-FrameBudget");
+
+    private static final int FRAMES_IN_FLIGHT = GpuTimestamps.FRAMES_IN_FLIGHT;
+    private static final int MAX_SECTIONS = 4;      // Timed sections per frame
+
+    private static final float SMOOTHING = 0.1f;             // EMA weight of a new sample
+    private static final float RECOVER_THRESHOLD = 0.6f;     // Improve only below 60% of the budget
+    private static final int DEGRADE_SAMPLES = 8;            // Consecutive samples over budget
+    private static final int RECOVER_SAMPLES = 120;          // Consecutive samples well under budget
+    private static final int SETTLE_SAMPLES = FRAMES_IN_FLIGHT + 8; // Ignore samples after a change
+
+    // Degradation levels, 0 = full quality
+    private static final RenderQuality[] LEVEL_QUALITY = {
+        RenderQuality.HIGH, RenderQuality.MEDIUM, RenderQuality.MEDIUM, RenderQuality.LOW, RenderQuality.LOW
+    };
+    private static final float[] LEVEL_LOD_SCALE = {1.0f, 1.0f, 0.7f, 0.5f, 0.35f};
+    private static final int[] LEVEL_EFFECT_LIMIT = {CustomPostProcessing.MAX_EFFECTS, 12, 10, 8, 4};
+
+    // Per ring slot: start and end timestamp mark of each section
+    private static final int[][] sectionMarks = new int[FRAMES_IN_FLIGHT][MAX_SECTIONS * 2];
+    private static final int[] sectionCounts = new int[FRAMES_IN_FLIGHT];
+    private static final long[] cpuNanos = new long[FRAMES_IN_FLIGHT];
+
+    private static boolean inSection = false;
+    private static int sectionStartMark;
+    private static long sectionStart;
+
+    private static float budgetMs = Float.parseFloat(System.getProperty("paperjjk.frameBudgetMs", "3.0"));
+    private static float gpuMs = 0.0f;
+    private static float cpuMs = 0.0f;
+    private static int level = 0;
+    private static int overCount = 0;
+    private static int underCount = 0;
+    private static int settleCount = 0;
+
+    private static boolean initialized = false;
+
+    private static final GpuTimestamps.Listener RING_LISTENER = new GpuTimestamps.Listener() {
+        @Override
+        public void endFrame() {
+            FrameBudgetController.endSection();
+        }
+
+        @Override
+        public void frameFinished(int slot, boolean available) {
+            if (available && sectionCounts[slot] > 0) {
+                poll(slot);
+            }
+            sectionCounts[slot] = 0;
+            cpuNanos[slot] = 0L;
+        }
+    };
+
+    private static void init() {
+        GpuTimestamps.addListener(RING_LISTENER);
+        initialized = true;
+    }
+
+    /**
+     * Start timing a JJK section (ignored past MAX_SECTIONS per frame)
+     */
+    public static void beginSection() {
+        if (!initialized) {
+            init();
+        }
+        int slot = GpuTimestamps.getSlot();
+        if (inSection || sectionCounts[slot] == MAX_SECTIONS) return;
+
+        sectionStartMark = GpuTimestamps.mark();
+        if (sectionStartMark == -1) return;
+
+        sectionStart = System.nanoTime();
+        inSection = true;
+    }
+
+    public static void endSection() {
+        if (!inSection) return;
+
+        inSection = false;
+        int endMark = GpuTimestamps.mark();
+        if (endMark == -1) return;
+
+        int slot = GpuTimestamps.getSlot();
+        cpuNanos[slot] += System.nanoTime() - sectionStart;
+        sectionMarks[slot][sectionCounts[slot] * 2] = sectionStartMark;
+        sectionMarks[slot][sectionCounts[slot] * 2 + 1] = endMark;
+        sectionCounts[slot]++;
+    }
+
+    /**
+     * Add a finished slot's sections as one sample
+     */
+    private static void poll(int index) {
+        int[] marks = sectionMarks[index];
+        long gpuNanos = 0L;
+        for (int i = 0; i < sectionCounts[index]; i++) {
+            gpuNanos += GpuTimestamps.elapsedNanos(index, marks[i * 2], marks[i * 2 + 1]);
+        }
+
+        addSample(gpuNanos / 1.0e6f, cpuNanos[index] / 1.0e6f);
+    }
+
+    private static void addSample(float sampleGpuMs, float sampleCpuMs) {
+        gpuMs += (sampleGpuMs - gpuMs) * SMOOTHING;
+        cpuMs += (sampleCpuMs - cpuMs) * SMOOTHING;
+
+        if (budgetMs <= 0.0f) return;
+        if (settleCount > 0) {
+            settleCount--;
+            return;
+        }
+
+        float cost = getCostMs();
+        if (cost > budgetMs) {
+            underCount = 0;
+            if (++overCount >= DEGRADE_SAMPLES && level < LEVEL_QUALITY.length - 1) {
+                setLevel(level + 1);
+            }
+        } else if (cost < budgetMs * RECOVER_THRESHOLD) {
+            overCount = 0;
+            if (++underCount >= RECOVER_SAMPLES && level > 0) {
+                setLevel(level - 1);
+            }
+        } else {
+            // Inside the hysteresis band: hold the current level
+            overCount = 0;
+            underCount = 0;
+        }
+    }
+
+    private static void setLevel(int newLevel) {
+        LOGGER.debug("JJK cost {} ms (budget {} ms): level {} -> {}", getCostMs(), budgetMs, level, newLevel);
+        level = newLevel;
+        overCount = 0;
+        underCount = 0;
+        settleCount = SETTLE_SAMPLES;
+
+        RenderQuality.setCap(LEVEL_QUALITY[level]);
+        SphereLod.setBudgetScale(LEVEL_LOD_SCALE[level]);
+        CustomPostProcessing.setEffectLimit(LEVEL_EFFECT_LIMIT[level]);
+    }
+
+    /**
+     * Set the budget in milliseconds; 0 (or less) disables the controller at full quality
+     */
+    public static void setBudget(float milliseconds) {
+        budgetMs = milliseconds;
+        if (budgetMs <= 0.0f && level != 0) {
+            setLevel(0);
+        }
+    }
+
+    public static float getBudget() {
+        return budgetMs;
+    }
+
+    /**
+     * Smoothed JJK cost per frame (the slower of CPU and GPU)
+     */
+    public static float getCostMs() {
+        return Math.max(gpuMs, cpuMs);
+    }
+
+    public static float getGpuMs() {
+        return gpuMs;
+    }
+
+    public static float getCpuMs() {
+        return cpuMs;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        for (int i = 0; i < FRAMES_IN_FLIGHT; i++) {
+            sectionCounts[i] = 0;
+            cpuNanos[i] = 0L;
+        }
+        inSection = false;
+    }
+}
@@ -0,0 +1,245 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.util.math.Vec3d;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Fresnel-glow shell renderer
+ *
+ * The rim term is computed per fragment from the camera-relative position and the
+ * unit-sphere normal, so the CPU only submits center, radius and base color per shell.
+ * Shells are queued during the frame and drawn instanced, one call per LOD tier, into
+ * the weighted-blended OIT targets (see OitPass).
+ */
+public class FresnelShellRenderer {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-FresnelShell");
+
+    private static final int FLOATS_PER_INSTANCE = 8; // center.xyz, radius, r, g, b, unused
+
+    private static PostProcessingShader shader;
+    private static int instanceVbo = -1;
+
+    // Shells queued this frame (reused between frames)
+    private static float[] queued = new float[4 * FLOATS_PER_INSTANCE];
+    private static int[] queuedTiers = new int[4];
+    private static int queuedCount = 0;
+    private static int[] tierInstanceCounts = new int[0];
+
+    private static FloatBuffer instanceData = MemoryUtil.memAllocFloat(4 * FLOATS_PER_INSTANCE);
+    private static int instanceCapacity = 0; // Instances the GPU buffer can hold
+
+    private static boolean initialized = false;
+    private static boolean failed = false;
+
+    /**
+     * Issue the shader build and create the instance buffer (ShaderWarmup stage)
+     */
+    public static void init() {
+        if (initialized || failed) return;
+
+        String vertexSource = """
+            #version 330 core
+
+            layout(location = 0) in vec3 aPosition;      // Unit sphere (also the normal)
+            layout(location = 1) in vec4 aCenterRadius;  // Camera-relative center, radius
+            layout(location = 2) in vec4 aColor;
+
+            uniform mat4 uViewProj;
+
+            out vec3 vPosition; // Camera-relative (camera at origin)
+            out vec3 vNormal;
+            out vec3 vColor;
+
+            void main() {
+                vPosition = aCenterRadius.xyz + aPosition * aCenterRadius.w;
+                vNormal = aPosition;
+                vColor = aColor.rgb;
+                gl_Position = uViewProj * vec4(vPosition, 1.0);
+            }
+            """;
+
+        String fragmentSource = """
+            #version 330 core
+
+            in vec3 vPosition;
+            in vec3 vNormal;
+            in vec3 vColor;
+            """ + OitPass.FRAGMENT_OUTPUT + """
+
+            void main() {
+                vec3 viewDir = normalize(-vPosition);
+                // 0 facing the camera, 1 at grazing angles (and on back faces)
+                float facing = clamp(dot(normalize(vNormal), viewDir), 0.0, 1.0);
+                float edge = 1.0 - facing;
+                float fresnel = edge * edge * edge;
+
+                // Brighten edges, edges more opaque, center more transparent
+                vec3 color = vColor + fresnel * vec3(1.5, 1.5, 0.5);
+                writeTranslucent(vec4(min(color, vec3(1.0)), 0.3 + fresnel * 0.6));
+            }
+            """;
+
+        shader = new PostProcessingShader(vertexSource, fragmentSource);
+        shader.compileAsync();
+
+        instanceVbo = GL15.glGenBuffers();
+
+        initialized = true;
+    }
+
+    /**
+     * True once warmed up and linked (never waits on the driver)
+     */
+    private static boolean isReady() {
+        if (!initialized) return false;
+        if (shader.isFailed()) {
+            LOGGER.error("Failed to compile Fresnel shell shader");
+            failed = true;
+            return false;
+        }
+        return shader.isReady();
+    }
+
+    /**
+     * Queue a Fresnel shell for this frame
+     * lodTier comes from SphereLod.selectTier
+     */
+    public static void submit(Vec3d center, float radius, int lodTier, float r, float g, float b) {
+        if (queuedCount == queuedTiers.length) {
+            queued = Arrays.copyOf(queued, queued.length * 2);
+            queuedTiers = Arrays.copyOf(queuedTiers, queuedTiers.length * 2);
+        }
+
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        int base = queuedCount * FLOATS_PER_INSTANCE;
+        queued[base] = (float) (center.x - cameraPos.x);
+        queued[base + 1] = (float) (center.y - cameraPos.y);
+        queued[base + 2] = (float) (center.z - cameraPos.z);
+        queued[base + 3] = radius;
+        queued[base + 4] = r;
+        queued[base + 5] = g;
+        queued[base + 6] = b;
+        queued[base + 7] = 1.0f;
+        queuedTiers[queuedCount] = lodTier;
+        queuedCount++;
+    }
+
+    public static boolean hasQueued() {
+        return queuedCount > 0;
+    }
+
+    /**
+     * Drop queued shells without drawing (when the translucent batch is skipped)
+     */
+    public static void clear() {
+        queuedCount = 0;
+    }
+
+    /**
+     * Draw and clear all queued shells
+     * Must be called between OitPass.begin() and end(); CameraMatrices must be updated for this frame
+     */
+    public static void render() {
+        if (failed || queuedCount == 0) {
+            queuedCount = 0;
+            return;
+        }
+
+        RenderSystem.assertOnRenderThread();
+        if (!isReady()) {
+            queuedCount = 0;
+            return;
+        }
+
+        fillInstances();
+        queuedCount = 0;
+
+        shader.use();
+        GL20.glUniformMatrix4fv(shader.getUniformLocation("uViewProj"), false,
+            CameraMatrices.getViewProjectionArray());
+        GL20.glUniform1i(shader.getUniformLocation("uOitEnabled"), OitPass.isActive() ? 1 : 0);
+
+        int firstInstance = 0;
+        for (int tier = 0; tier < tierInstanceCounts.length; tier++) {
+            int count = tierInstanceCounts[tier];
+            if (count == 0) continue;
+
+            GpuSphereMeshes.Mesh mesh = GpuSphereMeshes.get(SphereLod.getSegments(tier));
+            GL30.glBindVertexArray(mesh.vao);
+            GpuSphereMeshes.bindInstanceAttributes(instanceVbo, FLOATS_PER_INSTANCE, firstInstance);
+            GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, mesh.indexCount, GL11.GL_UNSIGNED_INT, 0, count);
+            firstInstance += count;
+        }
+
+        GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL20.glUseProgram(0);
+    }
+
+    /**
+     * Copy queued shells into the instance buffer sorted by LOD tier and upload it
+     */
+    private static void fillInstances() {
+        int tierCount = SphereLod.getTierCount();
+        if (tierInstanceCounts.length != tierCount) {
+            tierInstanceCounts = new int[tierCount];
+        }
+        Arrays.fill(tierInstanceCounts, 0);
+
+        int needed = queuedCount * FLOATS_PER_INSTANCE;
+        if (instanceData.capacity() < needed) {
+            instanceData = MemoryUtil.memRealloc(instanceData, Math.max(needed, instanceData.capacity() * 2));
+        }
+
+        instanceData.clear();
+        for (int tier = 0; tier < tierCount; tier++) {
+            for (int i = 0; i < queuedCount; i++) {
+                int queuedTier = Math.max(0, Math.min(tierCount - 1, queuedTiers[i]));
+                if (queuedTier != tier) continue;
+
+                instanceData.put(queued, i * FLOATS_PER_INSTANCE, FLOATS_PER_INSTANCE);
+                tierInstanceCounts[tier]++;
+            }
+        }
+        instanceData.flip();
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        if (queuedCount > instanceCapacity) {
+            // Grow the GPU buffer to match the CPU buffer
+            instanceCapacity = instanceData.capacity() / FLOATS_PER_INSTANCE;
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) instanceData.capacity() * Float.BYTES, GL15.GL_STREAM_DRAW);
+        }
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, instanceData);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (shader != null) {
+            shader.delete();
+            shader = null;
+        }
+        if (instanceVbo != -1) {
+            GL15.glDeleteBuffers(instanceVbo);
+            instanceVbo = -1;
+        }
+        instanceCapacity = 0;
+        queuedCount = 0;
+        initialized = false;
+    }
+}
@@ -0,0 +1,283 @@
+package com.justheare.paperjjk_client.render;
+
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRDebug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-pass GPU timings for the JJK render passes
+ *
+ * Every pass is bracketed with begin(pass)/end(). When profiling is on, the first
+ * bracket of each pass per frame is timed with a pair of GL_TIMESTAMP marks from the ring
+ * shared with FrameBudgetController (GpuTimestamps), read a few frames later and only once
+ * available, so nothing stalls. Timestamps nest, and unlike GL_TIME_ELAPSED they can't
+ * collide with vanilla's own GPU timer query. Results feed a rolling window per pass
+ * (average and percentiles) shown by /jjkdebug gpu and the overlay.
+ *
+ * Independently of profiling, every bracket is a KHR_debug group labelled with the pass
+ * name, so RenderDoc / Nsight attribute the draws to the right JJK pass.
+ */
+public class GpuProfiler {
+
+    public enum Pass {
+        REFRACTION_COPY("JJK refraction snapshot"),
+        REFRACTION("JJK refraction distortion"),
+        DOMAIN_RAYMARCH("JJK domain raymarch"),
+        DOMAIN_SHELLS("JJK domain shells"),
+        FRESNEL_SHELLS("JJK Fresnel shells"),
+        OIT_RESOLVE("JJK OIT resolve"),
+        HUD("JJK HUD composite");
+
+        private final String label;
+
+        Pass(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Rolling statistics of one pass, in milliseconds
+     */
+    public record Stats(float average, float p50, float p95, float p99, int samples) {
+    }
+
+    private static final Pass[] PASSES = Pass.values();
+    private static final int FRAMES_IN_FLIGHT = GpuTimestamps.FRAMES_IN_FLIGHT;
+    private static final int MAX_DEPTH = 8;          // Nested brackets tracked (deeper ones are labelled only)
+    private static final int HISTORY = 240;          // Samples per pass in the rolling window
+    private static final int OVERLAY_REFRESH = 30;   // Frames between overlay text updates
+
+    // Per ring slot: start and end timestamp mark of each pass, -1 if not timed that frame
+    private static final int[][] startMarks = new int[FRAMES_IN_FLIGHT][PASSES.length];
+    private static final int[][] endMarks = new int[FRAMES_IN_FLIGHT][PASSES.length];
+
+    // Rolling window per pass
+    private static final float[][] history = new float[PASSES.length][HISTORY];
+    private static final int[] historyCount = new int[PASSES.length];
+    private static final int[] historyHead = new int[PASSES.length];
+
+    // Open brackets: pass and start mark (-1 if untimed) per nesting level
+    private static final Pass[] openPasses = new Pass[MAX_DEPTH];
+    private static final int[] openMarks = new int[MAX_DEPTH];
+    private static int depth = 0;
+
+    private static boolean enabled = Boolean.getBoolean("paperjjk.gpuProfiler");
+    private static boolean overlay = false;
+    private static boolean debugGroups = false;
+    private static boolean initialized = false;
+
+    private static final List<String> overlayLines = new ArrayList<>();
+    private static int overlayAge = OVERLAY_REFRESH;
+
+    private static final GpuTimestamps.Listener RING_LISTENER = new GpuTimestamps.Listener() {
+        @Override
+        public void endFrame() {
+            // A pass that threw mid-bracket: close it so groups and marks stay balanced
+            while (depth > 0) {
+                end();
+            }
+        }
+
+        @Override
+        public void frameFinished(int slot, boolean available) {
+            for (int pass = 0; pass < PASSES.length; pass++) {
+                if (available && startMarks[slot][pass] != -1 && endMarks[slot][pass] != -1) {
+                    record(pass, GpuTimestamps.elapsedNanos(slot, startMarks[slot][pass], endMarks[slot][pass]) / 1.0e6f);
+                }
+                startMarks[slot][pass] = -1;
+                endMarks[slot][pass] = -1;
+            }
+        }
+    };
+
+    static {
+        clearMarks();
+    }
+
+    private static void init() {
+        GLCapabilities caps = GL.getCapabilities();
+        debugGroups = caps.OpenGL43 || caps.GL_KHR_debug;
+        GpuTimestamps.addListener(RING_LISTENER);
+        initialized = true;
+    }
+
+    /**
+     * Register the overlay HUD callback
+     */
+    public static void register() {
+        HudRenderCallback.EVENT.register(GpuProfiler::renderOverlay);
+    }
+
+    /**
+     * Open a pass bracket (debug group, plus a timestamp pair when profiling)
+     * Every begin must be matched by end() in the same frame
+     */
+    public static void begin(Pass pass) {
+        if (!initialized) {
+            init();
+        }
+
+        if (debugGroups) {
+            KHRDebug.glPushDebugGroup(KHRDebug.GL_DEBUG_SOURCE_APPLICATION, pass.ordinal(), pass.label);
+        }
+        if (depth < MAX_DEPTH) {
+            int slot = GpuTimestamps.getSlot();
+            boolean timed = enabled && startMarks[slot][pass.ordinal()] == -1;
+            openPasses[depth] = pass;
+            openMarks[depth] = timed ? GpuTimestamps.mark() : -1;
+            if (openMarks[depth] != -1) {
+                startMarks[slot][pass.ordinal()] = openMarks[depth];
+            }
+        }
+        depth++;
+    }
+
+    public static void end() {
+        if (!initialized || depth == 0) return;
+
+        depth--;
+        if (depth < MAX_DEPTH && openMarks[depth] != -1) {
+            int endMark = GpuTimestamps.mark();
+            if (endMark != -1) {
+                endMarks[GpuTimestamps.getSlot()][openPasses[depth].ordinal()] = endMark;
+            }
+            openMarks[depth] = -1;
+        }
+        if (debugGroups) {
+            KHRDebug.glPopDebugGroup();
+        }
+    }
+
+    private static void record(int pass, float milliseconds) {
+        history[pass][historyHead[pass]] = milliseconds;
+        historyHead[pass] = (historyHead[pass] + 1) % HISTORY;
+        historyCount[pass] = Math.min(HISTORY, historyCount[pass] + 1);
+    }
+
+    /**
+     * Rolling statistics of a pass (all zero before the first sample)
+     */
+    public static Stats getStats(Pass pass) {
+        int count = historyCount[pass.ordinal()];
+        if (count == 0) {
+            return new Stats(0.0f, 0.0f, 0.0f, 0.0f, 0);
+        }
+
+        float[] sorted = Arrays.copyOf(history[pass.ordinal()], count);
+        Arrays.sort(sorted);
+        float sum = 0.0f;
+        for (float sample : sorted) {
+            sum += sample;
+        }
+        return new Stats(sum / count, percentile(sorted, 0.50f), percentile(sorted, 0.95f),
+            percentile(sorted, 0.99f), count);
+    }
+
+    private static float percentile(float[] sorted, float fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+
+    /**
+     * One line per measured pass plus the total of the averages
+     */
+    public static List<String> formatReport() {
+        List<String> lines = new ArrayList<>();
+        lines.add("JJK GPU (ms)      avg    p50    p95    p99");
+
+        float total = 0.0f;
+        for (Pass pass : PASSES) {
+            Stats stats = getStats(pass);
+            if (stats.samples() == 0) continue;
+
+            total += stats.average();
+            lines.add(String.format(Locale.ROOT, "%-16s %6.3f %6.3f %6.3f %6.3f",
+                pass.name().toLowerCase(Locale.ROOT), stats.average(), stats.p50(), stats.p95(), stats.p99()));
+        }
+        lines.add(String.format(Locale.ROOT, "%-16s %6.3f", "total", total));
+        return lines;
+    }
+
+    private static void renderOverlay(DrawContext context, RenderTickCounter tickCounter) {
+        if (!overlay || !enabled) return;
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.options.hudHidden) return;
+
+        // Formatting and sorting only a couple of times per second
+        if (++overlayAge >= OVERLAY_REFRESH) {
+            overlayLines.clear();
+            overlayLines.addAll(formatReport());
+            overlayAge = 0;
+        }
+
+        int y = 4;
+        for (String line : overlayLines) {
+            context.drawText(client.textRenderer, line, 4, y, 0xFFE0E0E0, true);
+            y += 10;
+        }
+    }
+
+    /**
+     * Turn timing on or off (debug groups are unaffected)
+     */
+    public static void setEnabled(boolean enable) {
+        if (enable == enabled) return;
+
+        enabled = enable;
+        reset();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Toggle the overlay; showing it also turns profiling on
+     */
+    public static boolean toggleOverlay() {
+        overlay = !overlay;
+        if (overlay) {
+            setEnabled(true);
+        }
+        return overlay;
+    }
+
+    /**
+     * Drop all collected samples and in-flight measurements
+     */
+    public static void reset() {
+        clearMarks();
+        Arrays.fill(historyCount, 0);
+        Arrays.fill(historyHead, 0);
+        overlayAge = OVERLAY_REFRESH;
+    }
+
+    private static void clearMarks() {
+        for (int i = 0; i < FRAMES_IN_FLIGHT; i++) {
+            Arrays.fill(startMarks[i], -1);
+            Arrays.fill(endMarks[i], -1);
+        }
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        reset();
+        Arrays.fill(openMarks, -1);
+        depth = 0;
+    }
+}
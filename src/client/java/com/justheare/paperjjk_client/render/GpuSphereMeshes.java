@@ -0,0 +1,127 @@
+package com.justheare.paperjjk_client.render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit-sphere meshes from SphereMeshCache uploaded to GPU buffers, one per segment count
+ * Shaped domain meshes from DomainMeshService use the same layout (see upload)
+ *
+ * Each VAO has the mesh position on attribute 0 and two per-instance vec4 attributes
+ * (1 and 2) enabled with divisor 1. Instance pointers are left to the renderer, which
+ * points them at its own instance buffer before each draw.
+ */
+public class GpuSphereMeshes {
+    private static final Map<Integer, Mesh> meshes = new HashMap<>();
+
+    /**
+     * Get (or upload) the GPU mesh for a segment count
+     */
+    public static Mesh get(int segments) {
+        Mesh mesh = meshes.get(segments);
+        if (mesh == null) {
+            float[] positions = SphereMeshCache.get(segments).positions;
+            FloatBuffer buffer = MemoryUtil.memAllocFloat(positions.length);
+            try {
+                buffer.put(positions).flip();
+                mesh = upload(buffer);
+            } finally {
+                MemoryUtil.memFree(buffer);
+            }
+            meshes.put(segments, mesh);
+        }
+        return mesh;
+    }
+
+    /**
+     * Upload quad positions (xyz per vertex, 4 vertices per quad) as a new mesh
+     * The caller owns the mesh; render thread only
+     */
+    public static Mesh upload(FloatBuffer positions) {
+        return new Mesh(positions);
+    }
+
+    /**
+     * Point the per-instance attributes (1 and 2) at the given first instance
+     * (GL 3.3 has no base-instance draw, so the offset goes into the pointer)
+     * The target VAO must be bound
+     */
+    public static void bindInstanceAttributes(int instanceVbo, int floatsPerInstance, int firstInstance) {
+        int stride = floatsPerInstance * Float.BYTES;
+        long offset = (long) firstInstance * stride;
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        GL20.glVertexAttribPointer(1, 4, GL11.GL_FLOAT, false, stride, offset);
+        GL20.glVertexAttribPointer(2, 4, GL11.GL_FLOAT, false, stride, offset + 4L * Float.BYTES);
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        for (Mesh mesh : meshes.values()) {
+            mesh.delete();
+        }
+        meshes.clear();
+    }
+
+    /**
+     * Quad mesh in GPU buffers, quads split into two triangles each
+     */
+    public static class Mesh {
+        public final int vao;
+        public final int indexCount;
+        private final int vbo;
+        private final int ibo;
+
+        private Mesh(FloatBuffer positions) {
+            int quadCount = positions.remaining() / 3 / 4;
+            int[] indices = new int[quadCount * 6];
+            for (int q = 0; q < quadCount; q++) {
+                int base = q * 4;
+                indices[q * 6] = base;
+                indices[q * 6 + 1] = base + 1;
+                indices[q * 6 + 2] = base + 2;
+                indices[q * 6 + 3] = base;
+                indices[q * 6 + 4] = base + 2;
+                indices[q * 6 + 5] = base + 3;
+            }
+            indexCount = indices.length;
+
+            vao = GL30.glGenVertexArrays();
+            GL30.glBindVertexArray(vao);
+
+            vbo = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, positions, GL15.GL_STATIC_DRAW);
+            GL20.glEnableVertexAttribArray(0);
+            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 3 * Float.BYTES, 0);
+
+            ibo = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+
+            // Per-instance attributes (pointers are set per draw)
+            GL20.glEnableVertexAttribArray(1);
+            GL33.glVertexAttribDivisor(1, 1);
+            GL20.glEnableVertexAttribArray(2);
+            GL33.glVertexAttribDivisor(2, 1);
+
+            GL30.glBindVertexArray(0);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        }
+
+        public void delete() {
+            GL30.glDeleteVertexArrays(vao);
+            GL15.glDeleteBuffers(vbo);
+            GL15.glDeleteBuffers(ibo);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.justheare.paperjjk_client.render;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared ring of GL_TIMESTAMP queries for everything that times JJK GPU work
+ *
+ * Users (FrameBudgetController, GpuProfiler) call mark() at the start and end of what they
+ * measure and keep the returned indices with the frame slot (getSlot()). Timestamps are plain
+ * glQueryCounter calls, so measured ranges may nest or overlap, and nothing here touches
+ * GL_TIME_ELAPSED, which vanilla's own GPU timer uses and which allows only one active query.
+ *
+ * Results are read FRAMES_IN_FLIGHT frames later and only once the driver reports them
+ * available, so nothing stalls; a slot still pending when its turn comes round is dropped.
+ * Listeners get every slot back exactly once, read or dropped, before it is reused.
+ */
+public class GpuTimestamps {
+
+    static final int FRAMES_IN_FLIGHT = 4;  // Ring depth: results are read this many frames late
+    private static final int MAX_MARKS = 32; // Timestamps per frame, shared by all users
+
+    interface Listener {
+        /**
+         * Close anything still open; the ring is about to move to the next frame
+         */
+        void endFrame();
+
+        /**
+         * A slot is being retired: its timestamps are readable if available, otherwise dropped
+         */
+        void frameFinished(int slot, boolean available);
+    }
+
+    private static final int[][] queries = new int[FRAMES_IN_FLIGHT][MAX_MARKS];
+    private static final int[] markCounts = new int[FRAMES_IN_FLIGHT];
+    private static final boolean[] pending = new boolean[FRAMES_IN_FLIGHT];
+    private static final List<Listener> listeners = new ArrayList<>();
+    private static int slot = 0;
+
+    private static boolean initialized = false;
+
+    private static void init() {
+        for (int[] slotQueries : queries) {
+            GL15.glGenQueries(slotQueries);
+        }
+        initialized = true;
+    }
+
+    static void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Close the previous frame and hand finished slots to the listeners
+     * Call once per frame on the render thread, before any JJK pass
+     */
+    public static void beginFrame() {
+        if (!initialized) {
+            init();
+        }
+        for (Listener listener : listeners) {
+            listener.endFrame();
+        }
+
+        pending[slot] = markCounts[slot] > 0;
+        slot = (slot + 1) % FRAMES_IN_FLIGHT;
+
+        // Oldest first; the slot about to be reused gets dropped if the GPU still hasn't finished it
+        for (int i = 0; i < FRAMES_IN_FLIGHT; i++) {
+            int index = (slot + i) % FRAMES_IN_FLIGHT;
+            if (!pending[index]) continue;
+
+            boolean available = isAvailable(index);
+            if (available || index == slot) {
+                pending[index] = false;
+                for (Listener listener : listeners) {
+                    listener.frameFinished(index, available);
+                }
+            }
+        }
+
+        markCounts[slot] = 0;
+    }
+
+    /**
+     * Results arrive in submission order, so the slot's last timestamp stands for all of them
+     */
+    private static boolean isAvailable(int index) {
+        return GL15.glGetQueryObjecti(queries[index][markCounts[index] - 1], GL15.GL_QUERY_RESULT_AVAILABLE) != 0;
+    }
+
+    /**
+     * Record a GPU timestamp in the current slot
+     * Returns its index, or -1 if this frame's timestamps are used up (or before the first frame)
+     */
+    static int mark() {
+        if (!initialized || markCounts[slot] == MAX_MARKS) return -1;
+
+        int index = markCounts[slot]++;
+        GL33.glQueryCounter(queries[slot][index], GL33.GL_TIMESTAMP);
+        return index;
+    }
+
+    /**
+     * Slot the current frame's marks go to
+     */
+    static int getSlot() {
+        return slot;
+    }
+
+    /**
+     * GPU time between two marks of a slot; only valid inside frameFinished(slot, true)
+     */
+    static long elapsedNanos(int index, int startMark, int endMark) {
+        return GL33.glGetQueryObjecti64(queries[index][endMark], GL15.GL_QUERY_RESULT)
+            - GL33.glGetQueryObjecti64(queries[index][startMark], GL15.GL_QUERY_RESULT);
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (initialized) {
+            for (int[] slotQueries : queries) {
+                GL15.glDeleteQueries(slotQueries);
+            }
+        }
+        for (int i = 0; i < FRAMES_IN_FLIGHT; i++) {
+            pending[i] = false;
+            markCounts[i] = 0;
+        }
+        initialized = false;
+    }
+}
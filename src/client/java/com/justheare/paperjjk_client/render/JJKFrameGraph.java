@@ -0,0 +1,76 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.shader.RefractionEffectManager;
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.SimpleFramebufferFactory;
+import net.minecraft.client.render.DefaultFramebufferSet;
+import net.minecraft.client.render.FramePass;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.util.Handle;
+import net.minecraft.util.math.Vec3d;
+import org.joml.Vector3f;
+
+import java.util.List;
+
+/**
+ * JJK post effects as passes of Minecraft's world frame graph
+ *
+ * Called while WorldRenderer builds its graph (after every vanilla pass, transparency
+ * post chain included). The refraction pass declares the main framebuffer (color, and the
+ * depth it samples) as read-write and its snapshot as a transient target, so the graph
+ * orders it after everything that writes main and the allocator hands out the snapshot
+ * from the same pool as vanilla's post-chain targets. No effects, no pass.
+ *
+ * CustomPostProcessing.render() after renderWorld stays as a fallback for frames where
+ * the graph hook didn't run; it only draws what this pass left queued.
+ */
+public class JJKFrameGraph {
+
+    /**
+     * Queue this frame's effects and add the JJK passes
+     */
+    public static void addPasses(FrameGraphBuilder builder, DefaultFramebufferSet framebuffers) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null || client.player == null) return;
+
+        queueRefractionEffects();
+        if (!CustomPostProcessing.hasQueuedEffects()) return;
+
+        Framebuffer main = client.getFramebuffer();
+        FramePass pass = builder.createPass("paperjjk_refraction");
+        Handle<Framebuffer> snapshot = pass.transfer(builder.createResourceHandle("paperjjk_refraction_snapshot",
+            new SimpleFramebufferFactory(main.textureWidth, main.textureHeight, false, 0)));
+        framebuffers.mainFramebuffer = pass.transfer(framebuffers.mainFramebuffer);
+
+        pass.setRenderer(() -> {
+            FrameBudgetController.beginSection();
+            CustomPostProcessing.render(snapshot.get());
+            FrameBudgetController.endSection();
+        });
+    }
+
+    /**
+     * Project each active refraction effect to the screen and queue it in CustomPostProcessing
+     * Uses the world's own matrices (CameraMatrices, captured at the start of WorldRenderer.render),
+     * so effects stay on their world position under dynamic FOV and view bobbing
+     */
+    private static void queueRefractionEffects() {
+        List<RefractionEffectManager.RefractionEffect> effects = RefractionEffectManager.getEffects();
+        if (effects.isEmpty()) return;
+
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        for (RefractionEffectManager.RefractionEffect effect : effects) {
+            // Screen position, and depth in [0, 1] for occlusion testing
+            Vector3f screenPos = CameraMatrices.worldToScreen(effect.worldPos);
+            if (screenPos == null) continue;
+
+            float distance = (float) cameraPos.distanceTo(effect.worldPos);
+            float scaledRadius = effect.radius / Math.max(1.0f, distance / 10.0f);
+            float finalStrength = effect.strength * 0.1f;
+
+            CustomPostProcessing.addEffect(screenPos.x, screenPos.y, scaledRadius, finalStrength, screenPos.z);
+        }
+    }
+}
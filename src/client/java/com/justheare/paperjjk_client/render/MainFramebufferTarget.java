@@ -0,0 +1,62 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.util.GlState;
+import com.justheare.paperjjk_client.util.RenderHandles;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * Raw GL access to Minecraft's main framebuffer
+ * Minecraft 1.21 doesn't expose an FBO id, so we wrap its attachments in our own FBO
+ */
+public class MainFramebufferTarget {
+    private static int fbo = -1;
+    private static int attachedColorId = -1;
+    private static int attachedDepthId = -1;
+
+    /**
+     * Bind an FBO that writes into the main color attachment (and depth, if requested)
+     * Also sets the viewport to the full framebuffer size
+     * Returns false if the attachments couldn't be resolved
+     */
+    public static boolean bind(boolean withDepth) {
+        Framebuffer framebuffer = MinecraftClient.getInstance().getFramebuffer();
+        int colorId = RenderHandles.getColorTextureId(framebuffer);
+        if (colorId == -1) return false;
+        int depthId = withDepth ? RenderHandles.getDepthTextureId(framebuffer) : -1;
+
+        if (fbo == -1) {
+            fbo = GL30.glGenFramebuffers();
+        }
+        GlState.bindFramebuffer(fbo);
+
+        // Re-attach only when the underlying textures change (e.g. after a resize)
+        if (colorId != attachedColorId) {
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+                GL11.GL_TEXTURE_2D, colorId, 0);
+            attachedColorId = colorId;
+        }
+        if (depthId != attachedDepthId) {
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT,
+                GL11.GL_TEXTURE_2D, depthId == -1 ? 0 : depthId, 0);
+            attachedDepthId = depthId;
+        }
+
+        GlState.viewport(0, 0, framebuffer.textureWidth, framebuffer.textureHeight);
+        return true;
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (fbo != -1) {
+            GL30.glDeleteFramebuffers(fbo);
+            fbo = -1;
+        }
+        attachedColorId = -1;
+        attachedDepthId = -1;
+    }
+}
@@ -0,0 +1,339 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.shader.PostProcessingShader;
+import com.justheare.paperjjk_client.util.GlState;
+import com.justheare.paperjjk_client.util.RenderHandles;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Weighted-blended order-independent transparency for JJK translucent geometry
+ *
+ * Between begin() and end(), translucent shells and the domain raymarch pass write
+ * weighted color into an accumulation target instead of blending into the scene, so
+ * overlapping shells and domains composite correctly without sorting. end() resolves
+ * onto the main framebuffer.
+ *
+ * GL 3.3 has no per-target blend functions, so revealage lives in the accumulation
+ * target's alpha (multiplicative) and the weight sum in a second R16F target:
+ *   accum  = (sum(color * a * w), prod(1 - a))
+ *   weight = sum(a * w)
+ *
+ * Both targets are borrowed from RenderTargetPool for the duration of the batch.
+ * If the targets can't be created, shells blend straight into the main framebuffer.
+ */
+public class OitPass {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-OIT");
+
+    /**
+     * Fragment outputs for translucent shaders; call writeTranslucent(color) with straight alpha
+     * Renderers must set uOitEnabled from isActive()
+     * Full-screen passes that accumulate several layers per pixel weight each with
+     * oitDepthWeight() and write the sums themselves (see domain_sphere.fsh)
+     */
+    public static final String FRAGMENT_OUTPUT = """
+        uniform bool uOitEnabled;
+
+        layout(location = 0) out vec4 oitAccum;  // Plain color when OIT is off
+        layout(location = 1) out vec4 oitWeight;
+
+        // McGuire & Bavoil depth weight (favors near, opaque fragments)
+        float oitDepthWeight(float alpha, float windowDepth) {
+            return clamp(pow(min(1.0, alpha * 10.0) + 0.01, 3.0) * 1e8
+                * pow(1.0 - windowDepth * 0.9, 3.0), 1e-2, 3e3);
+        }
+
+        void writeTranslucent(vec4 color) {
+            if (!uOitEnabled) {
+                oitAccum = color;
+                oitWeight = vec4(0.0);
+                return;
+            }
+
+            float w = oitDepthWeight(color.a, gl_FragCoord.z);
+            oitAccum = vec4(color.rgb * color.a * w, color.a);
+            oitWeight = vec4(color.a * w);
+        }
+        """;
+
+    private static final float[] ACCUM_CLEAR = {0.0f, 0.0f, 0.0f, 1.0f}; // Revealage starts at 1
+    private static final float[] WEIGHT_CLEAR = {0.0f, 0.0f, 0.0f, 0.0f};
+
+    private static PostProcessingShader resolveShader;
+    private static int resolveVao = -1;
+
+    private static int fbo = -1;
+    private static int fullscreenFbo = -1; // Same color targets, no depth (for passes that sample depth)
+    private static RenderTargetPool.Target accumTarget;
+    private static RenderTargetPool.Target weightTarget;
+    private static int attachedAccumId = -1;
+    private static int attachedWeightId = -1;
+    private static int attachedDepthId = -1;
+    private static int fullscreenAccumId = -1;
+    private static int fullscreenWeightId = -1;
+
+    private static boolean initialized = false;
+    private static boolean failed = false;
+    private static boolean active = false;
+    private static boolean inPass = false;
+
+    /**
+     * Issue the resolve shader build and create the GL objects (ShaderWarmup stage)
+     */
+    public static void init() {
+        if (initialized || failed) return;
+
+        String vertexSource = """
+            #version 330 core
+
+            out vec2 texCoord;
+
+            void main() {
+                vec2 uv = vec2((gl_VertexID << 1) & 2, gl_VertexID & 2);
+                gl_Position = vec4(uv * 2.0 - 1.0, 0.0, 1.0);
+                texCoord = uv;
+            }
+            """;
+
+        String fragmentSource = """
+            #version 330 core
+
+            uniform sampler2D uAccum;
+            uniform sampler2D uWeight;
+            uniform vec2 uUvScale;  // Pooled targets may be larger than the screen
+
+            in vec2 texCoord;
+            out vec4 fragColor;
+
+            void main() {
+                vec2 uv = texCoord * uUvScale;
+                vec4 accum = texture(uAccum, uv);
+                float revealage = accum.a;
+                if (revealage >= 1.0) {
+                    discard; // Nothing translucent here
+                }
+
+                float weightSum = max(texture(uWeight, uv).r, 1e-5);
+                fragColor = vec4(accum.rgb / weightSum, 1.0 - revealage);
+            }
+            """;
+
+        resolveShader = new PostProcessingShader(vertexSource, fragmentSource);
+        resolveShader.compileAsync();
+
+        resolveVao = GL30.glGenVertexArrays();
+        fbo = GL30.glGenFramebuffers();
+        fullscreenFbo = GL30.glGenFramebuffers();
+
+        initialized = true;
+    }
+
+    /**
+     * Start a translucent batch: binds the OIT targets (or the main framebuffer as fallback)
+     * with depth test on, depth write off and both faces drawn
+     * Returns false if nothing can be drawn this frame
+     */
+    public static boolean begin() {
+        RenderSystem.assertOnRenderThread();
+        if (initialized && resolveShader.isFailed()) {
+            LOGGER.error("Failed to compile OIT resolve shader, using plain alpha blending");
+            failed = true;
+        }
+
+        // Plain alpha blending until warmed up and the resolve shader has linked
+        active = initialized && !failed && resolveShader.isReady() && bindTargets();
+        if (active) {
+            GL30.glClearBufferfv(GL11.GL_COLOR, 0, ACCUM_CLEAR);
+            GL30.glClearBufferfv(GL11.GL_COLOR, 1, WEIGHT_CLEAR);
+            // RGB additive, alpha multiplicative (revealage)
+            GlState.blend(true);
+            GlState.blendFunc(GL11.GL_ONE, GL11.GL_ONE, GL11.GL_ZERO, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        } else {
+            if (!MainFramebufferTarget.bind(true)) return false;
+            GlState.alphaBlend();
+        }
+
+        GlState.depthTest(true);
+        GlState.depthMask(false);
+        GlState.cull(false);
+
+        inPass = true;
+        return true;
+    }
+
+    /**
+     * Switch the batch to a target without depth attached, depth test off
+     * For full-screen passes that sample the scene depth texture (which would otherwise be
+     * a feedback loop) and do their own occlusion; call bindGeometry() afterwards
+     * Returns false if the main framebuffer can't be bound in fallback mode
+     */
+    public static boolean bindFullscreen() {
+        if (!inPass) return false;
+
+        GlState.depthTest(false);
+        if (!active) {
+            return MainFramebufferTarget.bind(false);
+        }
+
+        GlState.bindFramebuffer(fullscreenFbo);
+        if (accumTarget.texture != fullscreenAccumId || weightTarget.texture != fullscreenWeightId) {
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+                GL11.GL_TEXTURE_2D, accumTarget.texture, 0);
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT1,
+                GL11.GL_TEXTURE_2D, weightTarget.texture, 0);
+            GL20.glDrawBuffers(new int[] {GL30.GL_COLOR_ATTACHMENT0, GL30.GL_COLOR_ATTACHMENT1});
+            fullscreenAccumId = accumTarget.texture;
+            fullscreenWeightId = weightTarget.texture;
+        }
+        return true;
+    }
+
+    /**
+     * Back to the depth-tested target for mesh geometry after bindFullscreen()
+     */
+    public static void bindGeometry() {
+        if (!inPass) return;
+
+        if (active) {
+            GlState.bindFramebuffer(fbo);
+        } else {
+            MainFramebufferTarget.bind(true);
+        }
+        GlState.depthTest(true);
+    }
+
+    /**
+     * True while drawing into the OIT targets (shaders must weight their output)
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Resolve the batch onto the main framebuffer
+     * Vanilla re-applies its own pipeline state on the next draw; only depth writes are re-enabled
+     */
+    public static void end() {
+        if (!inPass) return;
+        inPass = false;
+
+        if (active) {
+            resolve();
+            active = false;
+        }
+        releaseTargets();
+
+        GlState.bindFramebuffer(0);
+        GlState.depthMask(true);
+    }
+
+    private static void resolve() {
+        if (!MainFramebufferTarget.bind(false)) return;
+
+        GlState.depthTest(false);
+        GlState.alphaBlend();
+        GlState.bindTexture(0, accumTarget.texture);
+        GlState.bindTexture(1, weightTarget.texture);
+
+        resolveShader.use();
+        GL20.glUniform1i(resolveShader.getUniformLocation("uAccum"), 0);
+        GL20.glUniform1i(resolveShader.getUniformLocation("uWeight"), 1);
+        GL20.glUniform2f(resolveShader.getUniformLocation("uUvScale"),
+            accumTarget.getUvScaleX(), accumTarget.getUvScaleY());
+
+        GL30.glBindVertexArray(resolveVao);
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, 3);
+        GL30.glBindVertexArray(0);
+        GL20.glUseProgram(0);
+    }
+
+    /**
+     * Bind the accumulation FBO sized to the main framebuffer, sharing its depth (read only)
+     */
+    private static boolean bindTargets() {
+        Framebuffer framebuffer = MinecraftClient.getInstance().getFramebuffer();
+        int depthId = RenderHandles.getDepthTextureId(framebuffer);
+        if (depthId == -1) return false;
+
+        int width = framebuffer.textureWidth;
+        int height = framebuffer.textureHeight;
+
+        accumTarget = RenderTargetPool.acquire(width, height, GL30.GL_RGBA16F);
+        weightTarget = RenderTargetPool.acquire(width, height, GL30.GL_R16F);
+
+        GlState.bindFramebuffer(fbo);
+
+        // Re-attach only when the pool hands out different textures (e.g. after a resize)
+        boolean reattached = false;
+        if (accumTarget.texture != attachedAccumId || weightTarget.texture != attachedWeightId) {
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+                GL11.GL_TEXTURE_2D, accumTarget.texture, 0);
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT1,
+                GL11.GL_TEXTURE_2D, weightTarget.texture, 0);
+            GL20.glDrawBuffers(new int[] {GL30.GL_COLOR_ATTACHMENT0, GL30.GL_COLOR_ATTACHMENT1});
+            attachedAccumId = accumTarget.texture;
+            attachedWeightId = weightTarget.texture;
+            reattached = true;
+        }
+        if (depthId != attachedDepthId) {
+            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT,
+                GL11.GL_TEXTURE_2D, depthId, 0);
+            attachedDepthId = depthId;
+            reattached = true;
+        }
+
+        // Completeness only changes with the attachments, so skip the driver query otherwise
+        if (reattached && GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            LOGGER.error("OIT framebuffer incomplete, using plain alpha blending");
+            GlState.bindFramebuffer(0);
+            releaseTargets();
+            failed = true;
+            return false;
+        }
+
+        GlState.viewport(0, 0, width, height);
+        return true;
+    }
+
+    private static void releaseTargets() {
+        RenderTargetPool.release(accumTarget);
+        RenderTargetPool.release(weightTarget);
+        accumTarget = null;
+        weightTarget = null;
+    }
+
+    /**
+     * Cleanup resources
+     */
+    public static void cleanup() {
+        if (resolveShader != null) {
+            resolveShader.delete();
+            resolveShader = null;
+        }
+        if (resolveVao != -1) {
+            GL30.glDeleteVertexArrays(resolveVao);
+            resolveVao = -1;
+        }
+        if (fbo != -1) {
+            GL30.glDeleteFramebuffers(fbo);
+            fbo = -1;
+        }
+        if (fullscreenFbo != -1) {
+            GL30.glDeleteFramebuffers(fullscreenFbo);
+            fullscreenFbo = -1;
+        }
+        releaseTargets();
+        attachedAccumId = -1;
+        attachedWeightId = -1;
+        attachedDepthId = -1;
+        fullscreenAccumId = -1;
+        fullscreenWeightId = -1;
+        initialized = false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.justheare.paperjjk_client.render;
+
+/**
+ * Client render quality tier for the JJK effects
+ *
+ * distortionScale is the resolution divisor of the refraction displacement field:
+ * 1 evaluates every pixel, 2 and 4 evaluate at half / quarter resolution and upsample
+ * with depth awareness (see CustomPostProcessing). Lower tiers mainly help integrated GPUs
+ * during large domain effects.
+ *
+ * get() is the player's choice; FrameBudgetController may cap it lower while the JJK
+ * passes are over budget. Renderers read effective().
+ */
+public enum RenderQuality {
+    LOW(4),
+    MEDIUM(2),
+    HIGH(1);
+
+    private static RenderQuality current = HIGH;
+    private static RenderQuality cap = HIGH;
+
+    private final int distortionScale;
+
+    RenderQuality(int distortionScale) {
+        this.distortionScale = distortionScale;
+    }
+
+    public int getDistortionScale() {
+        return distortionScale;
+    }
+
+    public static RenderQuality get() {
+        return current;
+    }
+
+    public static void set(RenderQuality quality) {
+        current = quality;
+    }
+
+    /**
+     * Tier actually used this frame (the lower of the player's choice and the budget cap)
+     */
+    public static RenderQuality effective() {
+        return cap.ordinal() < current.ordinal() ? cap : current;
+    }
+
+    static void setCap(RenderQuality quality) {
+        cap = quality;
+    }
+}
@@ -0,0 +1,210 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.util.GlState;
+import com.mojang.blaze3d.systems.RenderSystem;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared pool of offscreen render targets for the JJK passes
+ *
+ * Targets are keyed by (width, height, internal format). Sizes are rounded up to a
+ * bucket so a window drag keeps reusing the same textures instead of reallocating every
+ * step; the requested area sits in the lower-left corner and getUvScaleX/Y() map full-screen
+ * texture coordinates onto it. Each target records its format, so nothing is queried
+ * back from the driver. Released targets stay allocated and are only deleted after
+ * going unused for RELEASE_DELAY_FRAMES, so there is no per-frame GL object churn.
+ */
+public class RenderTargetPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-TargetPool");
+
+    private static final int BUCKET_SIZE = 128;
+    private static final int RELEASE_DELAY_FRAMES = 120;
+
+    // Free targets by key, most recently released last
+    private static final Map<Long, ArrayDeque<Target>> free = new HashMap<>();
+    private static final List<Target> borrowed = new ArrayList<>();
+    private static long frame = 0;
+
+    /**
+     * A pooled texture (plus a lazily created FBO with it as color attachment 0)
+     */
+    public static class Target {
+        public final int texture;
+        public final int internalFormat;
+        public final int allocatedWidth;
+        public final int allocatedHeight;
+        private int width;
+        private int height;
+        private int fbo = -1;
+        private long lastUsedFrame;
+
+        private Target(int texture, int internalFormat, int allocatedWidth, int allocatedHeight) {
+            this.texture = texture;
+            this.internalFormat = internalFormat;
+            this.allocatedWidth = allocatedWidth;
+            this.allocatedHeight = allocatedHeight;
+        }
+
+        /**
+         * Requested size (the valid region of the texture)
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Scale from full-screen [0,1] texture coordinates to the valid region
+         */
+        public float getUvScaleX() {
+            return (float) width / allocatedWidth;
+        }
+
+        public float getUvScaleY() {
+            return (float) height / allocatedHeight;
+        }
+
+        /**
+         * FBO with this texture attached as color 0 (created on first use)
+         */
+        public int getFbo() {
+            if (fbo == -1) {
+                fbo = GL30.glGenFramebuffers();
+                GlState.bindFramebuffer(fbo);
+                GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+                    GL11.GL_TEXTURE_2D, texture, 0);
+                GlState.bindFramebuffer(0);
+            }
+            return fbo;
+        }
+
+        private void delete() {
+            if (fbo != -1) {
+                GL30.glDeleteFramebuffers(fbo);
+                fbo = -1;
+            }
+            GlState.deleteTexture(texture);
+        }
+    }
+
+    private static long key(int internalFormat, int bucketWidth, int bucketHeight) {
+        return ((long) internalFormat << 32) | ((long) bucketWidth << 16) | bucketHeight;
+    }
+
+    private static int bucket(int size) {
+        return (size + BUCKET_SIZE - 1) / BUCKET_SIZE * BUCKET_SIZE;
+    }
+
+    /**
+     * Borrow a target of at least the given size
+     * Must be returned with release() once the pass no longer reads it
+     */
+    public static Target acquire(int width, int height, int internalFormat) {
+        RenderSystem.assertOnRenderThread();
+
+        int bucketWidth = bucket(width);
+        int bucketHeight = bucket(height);
+        ArrayDeque<Target> queue = free.get(key(internalFormat, bucketWidth, bucketHeight));
+
+        Target target = queue != null ? queue.pollLast() : null;
+        if (target == null) {
+            target = allocate(internalFormat, bucketWidth, bucketHeight);
+        }
+
+        target.width = width;
+        target.height = height;
+        target.lastUsedFrame = frame;
+        borrowed.add(target);
+        return target;
+    }
+
+    /**
+     * Return a borrowed target to the pool (kept allocated for reuse)
+     */
+    public static void release(Target target) {
+        if (target == null || !borrowed.remove(target)) return;
+
+        target.lastUsedFrame = frame;
+        free.computeIfAbsent(key(target.internalFormat, target.allocatedWidth, target.allocatedHeight),
+            k -> new ArrayDeque<>()).addLast(target);
+    }
+
+    /**
+     * Advance the frame counter and delete targets that have been idle too long
+     * Call once per frame on the render thread
+     */
+    public static void beginFrame() {
+        frame++;
+
+        Iterator<ArrayDeque<Target>> queues = free.values().iterator();
+        while (queues.hasNext()) {
+            ArrayDeque<Target> queue = queues.next();
+            // Oldest first: stop at the first target still in its grace period
+            while (!queue.isEmpty() && frame - queue.peekFirst().lastUsedFrame > RELEASE_DELAY_FRAMES) {
+                queue.pollFirst().delete();
+            }
+            if (queue.isEmpty()) {
+                queues.remove();
+            }
+        }
+    }
+
+    private static Target allocate(int internalFormat, int width, int height) {
+        int texture = GL11.glGenTextures();
+        GlState.bindTexture(0, texture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, width, height, 0,
+            pixelFormat(internalFormat), pixelType(internalFormat), (ByteBuffer) null);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+
+        LOGGER.debug("Allocated {}x{} render target (format 0x{})", width, height, Integer.toHexString(internalFormat));
+        return new Target(texture, internalFormat, width, height);
+    }
+
+    private static int pixelFormat(int internalFormat) {
+        return switch (internalFormat) {
+            case GL30.GL_R16F, GL30.GL_R32F, GL30.GL_R8 -> GL11.GL_RED;
+            default -> GL11.GL_RGBA;
+        };
+    }
+
+    private static int pixelType(int internalFormat) {
+        return switch (internalFormat) {
+            case GL30.GL_R16F, GL30.GL_R32F, GL30.GL_RGBA16F, GL30.GL_RGBA32F -> GL11.GL_FLOAT;
+            default -> GL11.GL_UNSIGNED_BYTE;
+        };
+    }
+
+    /**
+     * Cleanup resources (free and borrowed targets)
+     */
+    public static void cleanup() {
+        for (ArrayDeque<Target> queue : free.values()) {
+            for (Target target : queue) {
+                target.delete();
+            }
+        }
+        free.clear();
+        for (Target target : borrowed) {
+            target.delete();
+        }
+        borrowed.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Visibility test for domain and effect spheres, run before any vertices or instances are produced
+ * Uses the frustum from CameraMatrices, built from the world's captured view and projection
+ * (dynamic FOV and bobbing included), so CameraMatrices must be updated for this frame
+ */
+public class SphereCulling {
+    // Spheres whose nearest surface is farther than this are skipped (blocks)
+    private static float maxRenderDistance = 512.0f;
+
+    public static void setMaxRenderDistance(float distance) {
+        maxRenderDistance = Math.max(16.0f, distance);
+    }
+
+    public static float getMaxRenderDistance() {
+        return maxRenderDistance;
+    }
+
+    /**
+     * True if any part of the sphere is within render distance and inside the view frustum
+     */
+    public static boolean isVisible(Vec3d center, float radius) {
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        double dx = center.x - cameraPos.x;
+        double dy = center.y - cameraPos.y;
+        double dz = center.z - cameraPos.z;
+        double limit = maxRenderDistance + radius;
+        if (dx * dx + dy * dy + dz * dz > limit * limit) {
+            return false;
+        }
+
+        return CameraMatrices.isSphereInFrustum(center, radius);
+    }
+}
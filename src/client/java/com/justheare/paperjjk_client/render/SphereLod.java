@@ -0,0 +1,127 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.util.CameraMatrices;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Level-of-detail selection for domain and effect spheres
+ *
+ * A sphere's tier is chosen from its projected screen size (diameter as a fraction of
+ * screen height). Tier boundaries have a hysteresis band so a sphere hovering near a
+ * boundary doesn't pop between meshes every frame.
+ */
+public class SphereLod {
+    private static final float HYSTERESIS = 0.2f; // +-20% around each boundary
+    public static final int MIN_SEGMENTS = 4;
+    public static final int MAX_SEGMENTS = 128;
+
+    // Segment count per tier, coarse to fine
+    private static int[] tierSegments = {8, 16, 32, 48};
+    // Minimum projected size to use each tier (first entry is always 0)
+    private static float[] tierThresholds = {0.0f, 0.05f, 0.2f, 0.6f};
+    // Multiplies projected size before selection (>1 = finer, <1 = coarser)
+    private static float bias = 1.0f;
+    // Extra multiplier from FrameBudgetController (1 = no reduction)
+    private static float budgetScale = 1.0f;
+
+    /**
+     * Replace the tier table (/jjkdebug lod tiers)
+     * Both arrays must have the same length (at least one tier), thresholds strictly
+     * ascending and starting at 0, segments within MIN_SEGMENTS..MAX_SEGMENTS
+     * Throws IllegalArgumentException and keeps the current table otherwise
+     */
+    public static void setTiers(int[] segments, float[] thresholds) {
+        if (segments.length == 0 || segments.length != thresholds.length) {
+            throw new IllegalArgumentException("LOD tiers need matching, non-empty segment and threshold lists");
+        }
+        if (thresholds[0] != 0.0f) {
+            throw new IllegalArgumentException("The first LOD threshold must be 0");
+        }
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] < MIN_SEGMENTS || segments[i] > MAX_SEGMENTS) {
+                throw new IllegalArgumentException("LOD segments must be between " + MIN_SEGMENTS + " and " + MAX_SEGMENTS);
+            }
+            if (i > 0 && !(thresholds[i] > thresholds[i - 1])) {
+                throw new IllegalArgumentException("LOD thresholds must be strictly ascending");
+            }
+        }
+        tierSegments = segments.clone();
+        tierThresholds = thresholds.clone();
+    }
+
+    /**
+     * Minimum projected size of a tier
+     */
+    public static float getThreshold(int tier) {
+        return tierThresholds[Math.max(0, Math.min(tierThresholds.length - 1, tier))];
+    }
+
+    public static void setBias(float newBias) {
+        bias = Math.max(0.1f, newBias);
+    }
+
+    public static float getBias() {
+        return bias;
+    }
+
+    static void setBudgetScale(float scale) {
+        budgetScale = scale;
+    }
+
+    public static int getTierCount() {
+        return tierSegments.length;
+    }
+
+    public static int getSegments(int tier) {
+        return tierSegments[Math.max(0, Math.min(tierSegments.length - 1, tier))];
+    }
+
+    /**
+     * Projected diameter of a sphere as a fraction of screen height
+     * Returns +infinity when the camera is inside the sphere
+     */
+    public static float projectedSize(Vec3d center, float radius) {
+        Vec3d cameraPos = CameraMatrices.getCameraPos();
+        double dx = center.x - cameraPos.x;
+        double dy = center.y - cameraPos.y;
+        double dz = center.z - cameraPos.z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distance <= radius) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        // m11 = cot(fovY / 2): maps view-space height to NDC (NDC spans 2 units)
+        float focal = CameraMatrices.getProjection().m11();
+        return radius * focal / distance;
+    }
+
+    /**
+     * Pick a tier for the given projected size, sticking to the previous tier inside the hysteresis band
+     * Pass -1 as previousTier for a sphere seen for the first time
+     */
+    public static int selectTier(float projectedSize, int previousTier) {
+        float size = projectedSize * bias * budgetScale;
+
+        int tier = 0;
+        for (int i = tierThresholds.length - 1; i > 0; i--) {
+            if (size >= tierThresholds[i]) {
+                tier = i;
+                break;
+            }
+        }
+
+        if (previousTier < 0 || previousTier >= tierThresholds.length || tier == previousTier) {
+            return tier;
+        }
+
+        if (tier > previousTier) {
+            // Only refine once clearly above the next boundary
+            float boundary = tierThresholds[previousTier + 1];
+            return size >= boundary * (1.0f + HYSTERESIS) ? tier : previousTier;
+        } else {
+            // Only coarsen once clearly below the current boundary
+            float boundary = tierThresholds[previousTier];
+            return size < boundary * (1.0f - HYSTERESIS) ? tier : previousTier;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.justheare.paperjjk_client.render;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed unit-sphere meshes, one per tessellation level
+ * Built once on first use; renderers only apply scale (radius) and translation per frame
+ * Thread-safe (mesh builder workers read it too)
+ */
+public class SphereMeshCache {
+    private static final Map<Integer, SphereMesh> meshes = new ConcurrentHashMap<>();
+
+    /**
+     * Get (or build) the unit sphere for the given segment count
+     */
+    public static SphereMesh get(int segments) {
+        return meshes.computeIfAbsent(segments, SphereMesh::new);
+    }
+
+    /**
+     * Unit sphere as quads (4 vertices each), latitude by latitude
+     * On a unit sphere the outward normal equals the position, so both arrays share storage
+     */
+    public static class SphereMesh {
+        public final int segments;
+        public final int vertexCount;
+        public final float[] positions; // xyz per vertex
+        public final float[] normals;   // xyz per vertex (same array as positions)
+
+        private SphereMesh(int segments) {
+            this.segments = segments;
+            this.vertexCount = segments * segments * 4;
+            this.positions = new float[vertexCount * 3];
+            this.normals = positions;
+
+            // Ring values computed once per latitude/longitude line
+            float[] sinTheta = new float[segments + 1];
+            float[] cosTheta = new float[segments + 1];
+            float[] sinPhi = new float[segments + 1];
+            float[] cosPhi = new float[segments + 1];
+            for (int i = 0; i <= segments; i++) {
+                double theta = i * Math.PI / segments;
+                double phi = i * 2 * Math.PI / segments;
+                sinTheta[i] = (float) Math.sin(theta);
+                cosTheta[i] = (float) Math.cos(theta);
+                sinPhi[i] = (float) Math.sin(phi);
+                cosPhi[i] = (float) Math.cos(phi);
+            }
+
+            int index = 0;
+            for (int lat = 0; lat < segments; lat++) {
+                for (int lon = 0; lon < segments; lon++) {
+                    // Same winding as the original per-frame tessellation:
+                    // (theta1, phi1), (theta2, phi1), (theta2, phi2), (theta1, phi2)
+                    index = putVertex(index, sinTheta[lat], cosTheta[lat], sinPhi[lon], cosPhi[lon]);
+                    index = putVertex(index, sinTheta[lat + 1], cosTheta[lat + 1], sinPhi[lon], cosPhi[lon]);
+                    index = putVertex(index, sinTheta[lat + 1], cosTheta[lat + 1], sinPhi[lon + 1], cosPhi[lon + 1]);
+                    index = putVertex(index, sinTheta[lat], cosTheta[lat], sinPhi[lon + 1], cosPhi[lon + 1]);
+                }
+            }
+        }
+
+        private int putVertex(int index, float sinTheta, float cosTheta, float sinPhi, float cosPhi) {
+            positions[index] = sinTheta * cosPhi;
+            positions[index + 1] = cosTheta;
+            positions[index + 2] = sinTheta * sinPhi;
+            return index + 3;
+        }
+    }
+}
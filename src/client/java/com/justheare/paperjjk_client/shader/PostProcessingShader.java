@@ -2,26 +2,49 @@ package com.justheare.paperjjk_client.shader;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.util.Identifier;
+import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Manages a single post-processing shader program.
  */
 public class PostProcessingShader {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-Shader");
+
     private int programId = -1;
     private int vertexShaderId = -1;
     private int fragmentShaderId = -1;
+    private int computeShaderId = -1;
 
     private final String vertexSource;
     private final String fragmentSource;
+    private final String computeSource;
+    private final Map<String, Integer> uniformLocations = new HashMap<>();
+
+    // Async compile state
+    private String cacheKey;
+    private boolean pending = false;
+    private boolean failed = false;
+    private String error;
 
     public PostProcessingShader(String vertexSource, String fragmentSource) {
+        this(vertexSource, fragmentSource, null);
+    }
+
+    private PostProcessingShader(String vertexSource, String fragmentSource, String computeSource) {
         this.vertexSource = vertexSource;
         this.fragmentSource = fragmentSource;
+        this.computeSource = computeSource;
     }
 
     /**
@@ -48,44 +71,116 @@ public class PostProcessingShader {
     }
 
     /**
-     * Compile and link the shader program
+     * Program with a single compute stage
+     */
+    public static PostProcessingShader compute(String computeSource) {
+        return new PostProcessingShader(null, null, computeSource);
+    }
+
+    /**
+     * Compile and link the shader program, blocking until done
+     * Prefer compileAsync() + isReady() on the render path
      */
     public void compile() {
-        if (programId != -1) {
-            return; // Already compiled
+        compileAsync();
+        if (pending) {
+            finish();
+        }
+        if (failed) {
+            throw new RuntimeException(error);
+        }
+    }
+
+    /**
+     * Issue compile and link without waiting for the driver (or load the cached binary)
+     * Nothing is queried here, so with KHR_parallel_shader_compile the work runs on
+     * driver threads; isReady() reports completion
+     */
+    public void compileAsync() {
+        if (programId != -1 || failed) {
+            return; // Already compiled or issued
         }
 
         RenderSystem.assertOnRenderThread();
 
-        // Compile vertex shader
-        vertexShaderId = GL20.glCreateShader(GL20.GL_VERTEX_SHADER);
-        GL20.glShaderSource(vertexShaderId, vertexSource);
-        GL20.glCompileShader(vertexShaderId);
+        // Previously linked binary for this source and driver: no compile at all
+        cacheKey = computeSource != null
+            ? ProgramBinaryCache.key(computeSource)
+            : ProgramBinaryCache.key(vertexSource, fragmentSource);
+        programId = ProgramBinaryCache.load(cacheKey);
+        if (programId != -1) {
+            return;
+        }
 
-        if (GL20.glGetShaderi(vertexShaderId, GL20.GL_COMPILE_STATUS) == 0) {
-            String log = GL20.glGetShaderInfoLog(vertexShaderId);
-            throw new RuntimeException("Failed to compile vertex shader:\n" + log);
+        programId = GL20.glCreateProgram();
+        ProgramBinaryCache.prepare(programId);
+        if (computeSource != null) {
+            computeShaderId = createShader(GL43.GL_COMPUTE_SHADER, computeSource);
+            GL20.glAttachShader(programId, computeShaderId);
+        } else {
+            vertexShaderId = createShader(GL20.GL_VERTEX_SHADER, vertexSource);
+            fragmentShaderId = createShader(GL20.GL_FRAGMENT_SHADER, fragmentSource);
+            GL20.glAttachShader(programId, vertexShaderId);
+            GL20.glAttachShader(programId, fragmentShaderId);
         }
+        GL20.glLinkProgram(programId);
+        pending = true;
+    }
 
-        // Compile fragment shader
-        fragmentShaderId = GL20.glCreateShader(GL20.GL_FRAGMENT_SHADER);
-        GL20.glShaderSource(fragmentShaderId, fragmentSource);
-        GL20.glCompileShader(fragmentShaderId);
+    private static int createShader(int type, String source) {
+        int shader = GL20.glCreateShader(type);
+        GL20.glShaderSource(shader, source);
+        GL20.glCompileShader(shader);
+        return shader;
+    }
 
-        if (GL20.glGetShaderi(fragmentShaderId, GL20.GL_COMPILE_STATUS) == 0) {
-            String log = GL20.glGetShaderInfoLog(fragmentShaderId);
-            throw new RuntimeException("Failed to compile fragment shader:\n" + log);
+    /**
+     * True once the program is linked and usable; never blocks while the driver
+     * reports the link as still running (KHR_parallel_shader_compile)
+     */
+    public boolean isReady() {
+        if (pending) {
+            if (ShaderWarmup.hasParallelCompile()
+                && GL20.glGetProgrami(programId, KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR) == GL11.GL_FALSE) {
+                return false;
+            }
+            finish();
         }
+        return programId != -1 && !failed;
+    }
 
-        // Link program
-        programId = GL20.glCreateProgram();
-        GL20.glAttachShader(programId, vertexShaderId);
-        GL20.glAttachShader(programId, fragmentShaderId);
-        GL20.glLinkProgram(programId);
+    /**
+     * True if compile or link failed (the program will never become ready)
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Check the link result; on failure collect the logs and release the program
+     */
+    private void finish() {
+        pending = false;
+
+        if (GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            StringBuilder log = new StringBuilder("Failed to link shader program:\n");
+            appendShaderLog(log, "vertex", vertexShaderId);
+            appendShaderLog(log, "fragment", fragmentShaderId);
+            appendShaderLog(log, "compute", computeShaderId);
+            log.append(GL20.glGetProgramInfoLog(programId));
+            error = log.toString();
+            LOGGER.error(error);
+            failed = true;
+            delete();
+            return;
+        }
 
-        if (GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == 0) {
-            String log = GL20.glGetProgramInfoLog(programId);
-            throw new RuntimeException("Failed to link shader program:\n" + log);
+        ProgramBinaryCache.save(cacheKey, programId);
+    }
+
+    private static void appendShaderLog(StringBuilder log, String stage, int shader) {
+        if (shader != -1 && GL20.glGetShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+            log.append(stage).append(": ").append(GL20.glGetShaderInfoLog(shader)).append('\n');
         }
     }
 
@@ -94,6 +189,7 @@ public class PostProcessingShader {
      */
     public void delete() {
         RenderSystem.assertOnRenderThread();
+        uniformLocations.clear();
         if (programId != -1) {
             GL20.glDeleteProgram(programId);
             programId = -1;
@@ -106,9 +202,37 @@ public class PostProcessingShader {
             GL20.glDeleteShader(fragmentShaderId);
             fragmentShaderId = -1;
         }
+        if (computeShaderId != -1) {
+            GL20.glDeleteShader(computeShaderId);
+            computeShaderId = -1;
+        }
+        pending = false;
     }
 
     public boolean isCompiled() {
-        return programId != -1;
+        return isReady();
+    }
+
+    public int getProgramId() {
+        return programId;
+    }
+
+    /**
+     * Bind this program (must be compiled)
+     */
+    public void use() {
+        GL20.glUseProgram(programId);
+    }
+
+    /**
+     * Uniform location lookup, cached per name
+     */
+    public int getUniformLocation(String name) {
+        Integer location = uniformLocations.get(name);
+        if (location == null) {
+            location = GL20.glGetUniformLocation(programId, name);
+            uniformLocations.put(name, location);
+        }
+        return location;
     }
 }
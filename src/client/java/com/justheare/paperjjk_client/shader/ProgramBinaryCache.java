@@ -0,0 +1,162 @@
+package com.justheare.paperjjk_client.shader;
+
+import net.fabricmc.loader.api.FabricLoader;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL41;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * On-disk cache of linked program binaries (glGetProgramBinary / glProgramBinary)
+ *
+ * Entries are keyed by a SHA-256 of every stage source (defines included, they're part of
+ * the source) plus the GL vendor, renderer and version strings, so a driver update or a
+ * shader edit simply misses. A binary the driver rejects is deleted and the caller compiles
+ * from source as before. Render thread only.
+ */
+public class ProgramBinaryCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-ProgramCache");
+
+    private static final int MAGIC = 0x4A4A4B50; // "JJKP"
+    private static final int FORMAT_VERSION = 1;
+
+    private static Path directory;
+    private static String driverId;
+    private static boolean checked = false;
+    private static boolean supported = false;
+
+    private static boolean isSupported() {
+        if (checked) return supported;
+        checked = true;
+
+        GLCapabilities caps = GL.getCapabilities();
+        if ((caps.OpenGL41 || caps.GL_ARB_get_program_binary)
+            && GL11.glGetInteger(GL41.GL_NUM_PROGRAM_BINARY_FORMATS) > 0) {
+            directory = FabricLoader.getInstance().getGameDir().resolve("paperjjk-client").resolve("program-cache");
+            driverId = GL11.glGetString(GL11.GL_VENDOR) + "|" + GL11.glGetString(GL11.GL_RENDERER)
+                + "|" + GL11.glGetString(GL11.GL_VERSION) + "|" + FORMAT_VERSION;
+            supported = true;
+        } else {
+            LOGGER.info("Driver has no program binary formats, shader cache disabled");
+        }
+        return supported;
+    }
+
+    /**
+     * Cache key for a program built from these stage sources
+     */
+    public static String key(String... sources) {
+        if (!isSupported()) return null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(driverId.getBytes(StandardCharsets.UTF_8));
+            for (String source : sources) {
+                digest.update((byte) 0); // Stage separator
+                digest.update(source.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Call before linking so the driver keeps a retrievable binary
+     */
+    public static void prepare(int program) {
+        if (isSupported()) {
+            GL41.glProgramParameteri(program, GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11.GL_TRUE);
+        }
+    }
+
+    /**
+     * Linked program from the cache, or -1 on a miss or a rejected binary
+     */
+    public static int load(String key) {
+        if (key == null) return -1;
+
+        Path file = directory.resolve(key + ".bin");
+        if (!Files.isRegularFile(file)) return -1;
+
+        ByteBuffer binary;
+        int binaryFormat;
+        try {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (data.remaining() < 12 || data.getInt() != MAGIC) {
+                throw new IOException("bad header");
+            }
+            binaryFormat = data.getInt();
+            int length = data.getInt();
+            if (length != data.remaining()) {
+                throw new IOException("truncated");
+            }
+            binary = BufferUtils.createByteBuffer(length);
+            binary.put(data).flip();
+        } catch (IOException e) {
+            LOGGER.warn("Dropping unreadable program cache entry {}: {}", key, e.getMessage());
+            delete(file);
+            return -1;
+        }
+
+        int program = GL20.glCreateProgram();
+        GL41.glProgramBinary(program, binaryFormat, binary);
+        if (GL20.glGetProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            // Driver changed in a way the key didn't catch: recompile and overwrite
+            GL20.glDeleteProgram(program);
+            delete(file);
+            return -1;
+        }
+        return program;
+    }
+
+    /**
+     * Store a freshly linked program (failures only cost the next launch a compile)
+     */
+    public static void save(String key, int program) {
+        if (key == null) return;
+
+        int length = GL20.glGetProgrami(program, GL41.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) return;
+
+        ByteBuffer binary = BufferUtils.createByteBuffer(length);
+        int[] written = new int[1];
+        int[] binaryFormat = new int[1];
+        GL41.glGetProgramBinary(program, written, binaryFormat, binary);
+        binary.limit(written[0]);
+
+        ByteBuffer data = ByteBuffer.allocate(12 + binary.remaining());
+        data.putInt(MAGIC).putInt(binaryFormat[0]).putInt(binary.remaining()).put(binary);
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, data.array());
+            Files.move(temp, directory.resolve(key + ".bin"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write program cache entry {}", key, e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+}
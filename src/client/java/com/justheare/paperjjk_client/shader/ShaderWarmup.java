@@ -0,0 +1,90 @@
+package com.justheare.paperjjk_client.shader;
+
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+import org.lwjgl.opengl.ARBParallelShaderCompile;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shader warm-up during Minecraft's resource reload
+ *
+ * Renderers register their init (GL resources + PostProcessingShader.compileAsync()) here
+ * instead of running it lazily on first render. The stages run once, on the render thread,
+ * while the loading screen is up; with KHR_parallel_shader_compile the driver links on its
+ * own threads and renderers poll isReady() without blocking. Until a program is ready the
+ * effect is skipped (or its fallback is drawn), never compiled synchronously mid-frame.
+ */
+public class ShaderWarmup {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-ShaderWarmup");
+
+    private static final List<Runnable> stages = new ArrayList<>();
+    private static boolean parallelCompile = false;
+    private static boolean warmedUp = false;
+
+    /**
+     * Register a warm-up stage (call from onInitializeClient, before the first reload)
+     */
+    public static void register(Runnable stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Hook the warm-up into resource reload
+     */
+    public static void init() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(
+            new SimpleSynchronousResourceReloadListener() {
+                @Override
+                public Identifier getFabricId() {
+                    return Identifier.of("paperjjk-client", "shader_warmup");
+                }
+
+                @Override
+                public void reload(ResourceManager manager) {
+                    run();
+                }
+            });
+    }
+
+    /**
+     * True if link completion can be polled without blocking (GL_COMPLETION_STATUS_KHR)
+     */
+    public static boolean hasParallelCompile() {
+        return parallelCompile;
+    }
+
+    private static void run() {
+        // Programs don't depend on resource packs, so later reloads have nothing to do
+        if (warmedUp) return;
+        warmedUp = true;
+
+        GLCapabilities caps = GL.getCapabilities();
+        if (caps.GL_KHR_parallel_shader_compile) {
+            KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR(0xFFFFFFFF); // Driver's maximum
+            parallelCompile = true;
+        } else if (caps.GL_ARB_parallel_shader_compile) {
+            ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB(0xFFFFFFFF);
+            parallelCompile = true;
+        }
+
+        for (Runnable stage : stages) {
+            try {
+                stage.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Shader warm-up stage failed", e);
+            }
+        }
+
+        LOGGER.info("Issued {} shader warm-up stages (parallel compile: {})", stages.size(), parallelCompile);
+    }
+}
@@ -0,0 +1,107 @@
+package com.justheare.paperjjk_client.util;
+
+import net.minecraft.client.render.Camera;
+import net.minecraft.util.math.Vec3d;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+/**
+ * Camera matrices for raw GL rendering, captured once per frame from WorldRenderer.render
+ * These are the matrices the world is drawn with: dynamic FOV (sprint, speed, zoom),
+ * view bobbing and hurt tilt are all in the projection, so JJK geometry stays locked to terrain.
+ * Camera-relative: the view matrix is rotation only, so world positions must be
+ * offset by the camera position before transforming (keeps float precision far from origin)
+ */
+public class CameraMatrices {
+    private static final Matrix4f projection = new Matrix4f();
+    private static final Matrix4f view = new Matrix4f();
+    private static final Matrix4f viewProjection = new Matrix4f();
+    private static final Matrix4f inverseViewProjection = new Matrix4f();
+    private static final float[] viewProjectionArray = new float[16];
+    private static final float[] inverseViewProjectionArray = new float[16];
+    private static final FrustumIntersection frustum = new FrustumIntersection();
+    private static Vec3d cameraPos = Vec3d.ZERO;
+    private static final Vector4f clip = new Vector4f(); // Render thread only
+
+    /**
+     * Store this frame's world matrices (called at the start of WorldRenderer.render)
+     * positionMatrix: camera rotation; projectionMatrix: projection incl. bobbing and dynamic FOV
+     */
+    public static void update(Camera camera, Matrix4f positionMatrix, Matrix4f projectionMatrix) {
+        projection.set(projectionMatrix);
+        view.set(positionMatrix);
+        projection.mul(view, viewProjection);
+        viewProjection.get(viewProjectionArray);
+        viewProjection.invert(inverseViewProjection).get(inverseViewProjectionArray);
+        frustum.set(viewProjection, false);
+        cameraPos = camera.getPos();
+    }
+
+    public static Matrix4f getProjection() {
+        return projection;
+    }
+
+    public static Matrix4f getView() {
+        return view;
+    }
+
+    public static Matrix4f getViewProjection() {
+        return viewProjection;
+    }
+
+    /**
+     * Column-major view-projection matrix, ready for glUniformMatrix4fv
+     */
+    public static float[] getViewProjectionArray() {
+        return viewProjectionArray;
+    }
+
+    /**
+     * Column-major inverse view-projection (clip space to camera-relative world space)
+     */
+    public static float[] getInverseViewProjectionArray() {
+        return inverseViewProjectionArray;
+    }
+
+    /**
+     * Bounding sphere test against the view frustum (world-space center)
+     */
+    public static boolean isSphereInFrustum(Vec3d center, float radius) {
+        return frustum.testSphere(
+            (float) (center.x - cameraPos.x),
+            (float) (center.y - cameraPos.y),
+            (float) (center.z - cameraPos.z),
+            radius);
+    }
+
+    /**
+     * Project a world position with this frame's view-projection
+     * Returns screen x, y in [0, 1] (y down) and the window depth in z [0, 1],
+     * or null if the position is behind the camera
+     */
+    public static Vector3f worldToScreen(Vec3d worldPos) {
+        clip.set(
+            (float) (worldPos.x - cameraPos.x),
+            (float) (worldPos.y - cameraPos.y),
+            (float) (worldPos.z - cameraPos.z),
+            1.0f);
+        viewProjection.transform(clip);
+        if (clip.w < 0.001f) {
+            return null;
+        }
+
+        float ndcX = clip.x / clip.w;
+        float ndcY = clip.y / clip.w;
+        float ndcZ = clip.z / clip.w;
+        return new Vector3f(
+            (ndcX + 1.0f) * 0.5f,
+            (1.0f - ndcY) * 0.5f,
+            Math.max(0.0f, Math.min(1.0f, (ndcZ + 1.0f) * 0.5f)));
+    }
+
+    public static Vec3d getCameraPos() {
+        return cameraPos;
+    }
+}
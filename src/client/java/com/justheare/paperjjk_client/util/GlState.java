@@ -0,0 +1,78 @@
+package com.justheare.paperjjk_client.util;
+
+import com.mojang.blaze3d.opengl.GlStateManager;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * GL state changes for the JJK passes (render thread only)
+ *
+ * Everything goes through GlStateManager, which keeps a shadow copy of enable bits,
+ * blend function, active unit and per-unit texture bindings. Redundant changes are
+ * dropped there and nothing is ever read back from the driver. Because vanilla reads
+ * the same shadow and its render passes re-apply their pipeline state on the next draw,
+ * the passes don't save and restore state around themselves anymore: the cache always
+ * matches what is actually bound.
+ */
+public class GlState {
+
+    public static void depthTest(boolean enabled) {
+        if (enabled) GlStateManager._enableDepthTest(); else GlStateManager._disableDepthTest();
+    }
+
+    public static void blend(boolean enabled) {
+        if (enabled) GlStateManager._enableBlend(); else GlStateManager._disableBlend();
+    }
+
+    public static void cull(boolean enabled) {
+        if (enabled) GlStateManager._enableCull(); else GlStateManager._disableCull();
+    }
+
+    public static void scissorTest(boolean enabled) {
+        if (enabled) GlStateManager._enableScissorTest(); else GlStateManager._disableScissorTest();
+    }
+
+    public static void scissorBox(int x, int y, int width, int height) {
+        GlStateManager._scissorBox(x, y, width, height);
+    }
+
+    public static void depthMask(boolean write) {
+        GlStateManager._depthMask(write);
+    }
+
+    public static void blendFunc(int srcRgb, int dstRgb, int srcAlpha, int dstAlpha) {
+        GlStateManager._blendFuncSeparate(srcRgb, dstRgb, srcAlpha, dstAlpha);
+    }
+
+    /**
+     * Straight alpha blending (color over, alpha accumulated)
+     */
+    public static void alphaBlend() {
+        blend(true);
+        blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /**
+     * Bind a 2D texture to the given unit (leaves that unit active)
+     */
+    public static void bindTexture(int unit, int texture) {
+        GlStateManager._activeTexture(GL13.GL_TEXTURE0 + unit);
+        GlStateManager._bindTexture(texture);
+    }
+
+    /**
+     * Delete a texture and drop it from the binding cache (a reused id must not look bound)
+     */
+    public static void deleteTexture(int texture) {
+        GlStateManager._deleteTexture(texture);
+    }
+
+    public static void bindFramebuffer(int fbo) {
+        GlStateManager._glBindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
+    }
+
+    public static void viewport(int x, int y, int width, int height) {
+        GlStateManager._viewport(x, y, width, height);
+    }
+}
@@ -0,0 +1,118 @@
+package com.justheare.paperjjk_client.util;
+
+import com.justheare.paperjjk_client.compat.IrisCompat;
+import com.justheare.paperjjk_client.mixin.client.FramebufferAccessor;
+import com.justheare.paperjjk_client.mixin.client.PostEffectPassAccessor;
+import com.justheare.paperjjk_client.mixin.client.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.textures.GpuTexture;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.texture.GlTexture;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Central access to Minecraft render internals
+ *
+ * Private members are reached through mixin accessors (remapped at build time), never
+ * through name-based reflection, so the render hot path makes no reflective calls.
+ * validate() runs at startup so a mapping change fails there instead of silently
+ * skipping effects. Cached GL ids (including IrisCompat's) are dropped on resource reload.
+ */
+public class RenderHandles {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-RenderHandles");
+
+    // Last resolved attachments (re-resolved when the texture object changes, e.g. on resize)
+    private static GpuTexture cachedColorTexture;
+    private static int cachedColorId = -1;
+    private static GpuTexture cachedDepthTexture;
+    private static int cachedDepthId = -1;
+
+    /**
+     * Check that every accessor mixin applied; throws if the mappings changed
+     * Also registers the reload hook
+     */
+    public static void validate() {
+        // Referencing the targets loads them, which applies (or fails) the accessor mixins now
+        require(FramebufferAccessor.class, Framebuffer.class);
+        require(PostEffectProcessorAccessor.class, PostEffectProcessor.class);
+        require(PostEffectPassAccessor.class, PostEffectPass.class);
+
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(
+            new SimpleSynchronousResourceReloadListener() {
+                @Override
+                public Identifier getFabricId() {
+                    return Identifier.of("paperjjk-client", "render_handles");
+                }
+
+                @Override
+                public void reload(ResourceManager manager) {
+                    invalidate();
+                }
+            });
+
+        LOGGER.info("Render handles validated");
+    }
+
+    private static void require(Class<?> accessor, Class<?> target) {
+        if (!accessor.isAssignableFrom(target)) {
+            throw new IllegalStateException("Accessor " + accessor.getSimpleName()
+                + " was not applied to " + target.getName() + " (mapping change?)");
+        }
+    }
+
+    /**
+     * Drop cached GL ids so they are resolved again on next use
+     */
+    public static void invalidate() {
+        IrisCompat.invalidate();
+        cachedColorTexture = null;
+        cachedColorId = -1;
+        cachedDepthTexture = null;
+        cachedDepthId = -1;
+    }
+
+    /**
+     * GL id of the framebuffer's color attachment, or -1
+     */
+    public static int getColorTextureId(Framebuffer framebuffer) {
+        GpuTexture texture = ((FramebufferAccessor) (Object) framebuffer).paperjjk$getColorAttachment();
+        if (texture != cachedColorTexture) {
+            cachedColorTexture = texture;
+            cachedColorId = getGlId(texture);
+        }
+        return cachedColorId;
+    }
+
+    /**
+     * GL id of the framebuffer's depth attachment, or -1
+     */
+    public static int getDepthTextureId(Framebuffer framebuffer) {
+        GpuTexture texture = ((FramebufferAccessor) (Object) framebuffer).paperjjk$getDepthAttachment();
+        if (texture != cachedDepthTexture) {
+            cachedDepthTexture = texture;
+            cachedDepthId = getGlId(texture);
+        }
+        return cachedDepthId;
+    }
+
+    private static int getGlId(GpuTexture texture) {
+        return texture instanceof GlTexture glTexture ? glTexture.getGlId() : -1;
+    }
+
+    public static List<PostEffectPass> getPasses(PostEffectProcessor processor) {
+        return ((PostEffectProcessorAccessor) (Object) processor).paperjjk$getPasses();
+    }
+
+    public static String getPassId(PostEffectPass pass) {
+        return ((PostEffectPassAccessor) (Object) pass).paperjjk$getId();
+    }
+}
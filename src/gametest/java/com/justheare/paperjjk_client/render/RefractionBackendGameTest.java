@@ -0,0 +1,124 @@
+package com.justheare.paperjjk_client.render;
+
+import com.justheare.paperjjk_client.util.GlState;
+import com.justheare.paperjjk_client.util.RenderHandles;
+import net.fabricmc.fabric.api.client.gametest.v1.FabricClientGameTest;
+import net.fabricmc.fabric.api.client.gametest.v1.context.ClientGameTestContext;
+import net.fabricmc.fabric.api.client.gametest.v1.context.TestSingleplayerContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compute vs fragment refraction on the same rendered frame
+ *
+ * Loads a world, then on the render thread runs the refraction pass twice over the same
+ * main framebuffer contents (restored in between): once with the fragment path, once with
+ * the GL 4.3 compute path. Both must change the frame, and their outputs must match within
+ * rounding. CI runs this under xvfb on Mesa llvmpipe with MESA_GL_VERSION_OVERRIDE=4.3.
+ */
+public class RefractionBackendGameTest implements FabricClientGameTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PaperJJK-GameTest");
+
+    private static final int TOLERANCE = 2; // Per channel, out of 255
+
+    @Override
+    public void runTest(ClientGameTestContext context) {
+        try (TestSingleplayerContext singleplayer = context.worldBuilder().create()) {
+            singleplayer.getClientWorld().waitForChunksRender();
+
+            context.runOnClient(client -> {
+                if (!GL.getCapabilities().OpenGL43) {
+                    throw new AssertionError("GL 4.3 context required (set MESA_GL_VERSION_OVERRIDE=4.3 on Mesa)");
+                }
+                // Full-resolution tier only: the reduced tier never uses either path
+                FrameBudgetController.setBudget(0.0f);
+                RenderQuality.set(RenderQuality.HIGH);
+            });
+            context.waitFor(client -> ComputeRefraction.isAvailable());
+
+            context.runOnClient(RefractionBackendGameTest::compareBackends);
+        }
+    }
+
+    private static void compareBackends(MinecraftClient client) {
+        Framebuffer main = client.getFramebuffer();
+        int width = main.textureWidth;
+        int height = main.textureHeight;
+        int colorTexture = RenderHandles.getColorTextureId(main);
+
+        ByteBuffer original = readColor(colorTexture, width, height);
+
+        ComputeRefraction.setEnabled(false);
+        ByteBuffer fragment = renderEffects(colorTexture, width, height);
+        writeColor(colorTexture, width, height, original);
+
+        ComputeRefraction.setEnabled(true);
+        ByteBuffer compute = renderEffects(colorTexture, width, height);
+        writeColor(colorTexture, width, height, original);
+
+        if (countDifferent(original, fragment, 0) == 0) {
+            throw new AssertionError("Fragment refraction didn't change the frame");
+        }
+        if (countDifferent(original, compute, 0) == 0) {
+            throw new AssertionError("Compute refraction didn't change the frame");
+        }
+
+        int mismatched = countDifferent(fragment, compute, TOLERANCE);
+        if (mismatched > 0) {
+            throw new AssertionError(mismatched + " pixels differ by more than " + TOLERANCE
+                + " between the fragment and compute refraction paths");
+        }
+        LOGGER.info("Fragment and compute refraction match ({}x{})", width, height);
+    }
+
+    /**
+     * Queue two overlapping effects and one near the edge (sample clamp), then run the pass
+     */
+    private static ByteBuffer renderEffects(int colorTexture, int width, int height) {
+        CustomPostProcessing.addEffect(0.5f, 0.5f, 0.15f, 0.05f, 0.0f);
+        CustomPostProcessing.addEffect(0.58f, 0.45f, 0.1f, 0.08f, 0.0f);
+        CustomPostProcessing.addEffect(0.05f, 0.9f, 0.12f, 0.05f, 0.0f);
+        CustomPostProcessing.render();
+        return readColor(colorTexture, width, height);
+    }
+
+    private static int countDifferent(ByteBuffer a, ByteBuffer b, int tolerance) {
+        int count = 0;
+        for (int i = 0; i < a.capacity(); i += 4) {
+            for (int channel = 0; channel < 4; channel++) {
+                if (Math.abs((a.get(i + channel) & 0xFF) - (b.get(i + channel) & 0xFF)) > tolerance) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static ByteBuffer readColor(int texture, int width, int height) {
+        ByteBuffer pixels = BufferUtils.createByteBuffer(width * height * 4);
+        GlState.bindTexture(0, texture);
+        GL11.glPixelStorei(GL11.GL_PACK_ALIGNMENT, 4);
+        GL11.glPixelStorei(GL11.GL_PACK_ROW_LENGTH, 0);
+        GL11.glPixelStorei(GL11.GL_PACK_SKIP_PIXELS, 0);
+        GL11.glPixelStorei(GL11.GL_PACK_SKIP_ROWS, 0);
+        GL11.glGetTexImage(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        return pixels;
+    }
+
+    private static void writeColor(int texture, int width, int height, ByteBuffer pixels) {
+        GlState.bindTexture(0, texture);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ROW_LENGTH, 0);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_PIXELS, 0);
+        GL11.glPixelStorei(GL11.GL_UNPACK_SKIP_ROWS, 0);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+    }
+}